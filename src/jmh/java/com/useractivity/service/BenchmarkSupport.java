@@ -0,0 +1,59 @@
+package com.useractivity.service;
+
+import com.useractivity.UseractivityApplication;
+import com.useractivity.entity.UserActivity;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Full application context on an in-memory H2 (test profile), without the web server.
+     */
+    static ConfigurableApplicationContext startApplication() {
+        return new SpringApplicationBuilder(UseractivityApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN",
+                        "logging.level.com.useractivity=WARN")
+                .run();
+    }
+
+    /**
+     * A flat JSON object of roughly {@code bytes} bytes, or null for 0.
+     */
+    static String metadataOfSize(int bytes) {
+        if (bytes <= 0) {
+            return null;
+        }
+        StringBuilder json = new StringBuilder("{");
+        for (int field = 0; json.length() < bytes - 1; field++) {
+            if (field > 0) {
+                json.append(',');
+            }
+            json.append("\"field").append(field).append("\":\"value-").append(field).append("-abcdefghij\"");
+        }
+        return json.append('}').toString();
+    }
+
+    static UserActivity activity(long id, long userId, String metadata) {
+        return UserActivity.builder()
+                .id(id)
+                .userId(userId)
+                .activityType("LOGIN")
+                .description("User logged in from web")
+                .metadata(metadata)
+                .createdAt(LocalDateTime.of(2025, 12, 10, 10, 15, 30).minusSeconds(id))
+                .updatedAt(LocalDateTime.of(2025, 12, 10, 10, 15, 30))
+                .isDeleted(false)
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.useractivity.service;
+
+import com.useractivity.dto.ActivityResponse;
+import com.useractivity.dto.CreateActivityRequest;
+import com.useractivity.enums.ActivityType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link UserActivityService#createActivity} end to end on H2: metadata validation, insert and the
+ * transactional listeners (counter, cache).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class IngestionBenchmark {
+
+    @Param({"0", "256", "4096"})
+    private int metadataBytes;
+
+    private ConfigurableApplicationContext context;
+    private UserActivityService service;
+    private CreateActivityRequest request;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkSupport.startApplication();
+        service = context.getBean(UserActivityService.class);
+        request = new CreateActivityRequest(ActivityType.LOGIN, "User logged in from web",
+                BenchmarkSupport.metadataOfSize(metadataBytes));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ActivityResponse createActivity() {
+        return service.createActivity(ThreadLocalRandom.current().nextLong(1, 10_000), request);
+    }
+}
@@ -0,0 +1,139 @@
+package com.useractivity.service;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.useractivity.dto.ActivityResponse;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Per-request logging cost of a timeline read: the old synchronous INFO line with the whole page, the same line
+ * gated at DEBUG, and a sampled structured summary through an async JSON appender.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    @Param({"0.01"})
+    private double sampleRate;
+
+    private LoggerContext context;
+    private Logger syncLogger;
+    private Logger asyncJsonLogger;
+    private List<ActivityResponse> page;
+
+    @Setup
+    public void setUp() throws IOException {
+        String metadata = BenchmarkSupport.metadataOfSize(256);
+        page = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            page.add(UserActivityService.mapToResponse(BenchmarkSupport.activity(1_000 + i, 123L, metadata)));
+        }
+
+        // A private context, so Spring Boot's or the JMH harness' logging configuration does not interfere
+        context = new LoggerContext();
+        context.start();
+        Path dir = Files.createDirectories(Path.of("target", "logging-benchmark"));
+
+        PatternLayoutEncoder pattern = new PatternLayoutEncoder();
+        pattern.setContext(context);
+        pattern.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5level [%thread] %logger{40} : %msg%n");
+        pattern.start();
+        syncLogger = logger("sync", fileAppender("sync", pattern, dir.resolve("sync.log")));
+
+        LogstashEncoder json = new LogstashEncoder();
+        json.setContext(context);
+        json.start();
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setName("async-json");
+        async.setQueueSize(8192);
+        async.setDiscardingThreshold(1638);
+        async.setNeverBlock(true);
+        async.addAppender(fileAppender("json", json, dir.resolve("json.log")));
+        async.start();
+        asyncJsonLogger = logger("async-json", async);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    public void verboseSyncInfo() {
+        syncLogger.info("TimeLine Results : {}", page);
+    }
+
+    @Benchmark
+    public boolean payloadAtDebug() {
+        syncLogger.debug("TimeLine Results : {}", page);
+        return syncLogger.isDebugEnabled();
+    }
+
+    @Benchmark
+    public void sampledAsyncJson() {
+        if (ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            asyncJsonLogger.info("Sampled request {} {} {} {}",
+                    kv("endpoint", "getTimeline"),
+                    kv("status", 200),
+                    kv("durationMs", 3L),
+                    kv("sampleRate", sampleRate));
+        }
+    }
+
+    private Logger logger(String name, Appender<ILoggingEvent> appender) {
+        Logger logger = context.getLogger("benchmark." + name);
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private OutputStreamAppender<ILoggingEvent> fileAppender(String name, Encoder<ILoggingEvent> encoder, Path file)
+            throws IOException {
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setName(name);
+        appender.setEncoder(encoder);
+        OutputStream out = new FileOutputStream(file.toFile());
+        appender.setOutputStream(out);
+        appender.start();
+        return appender;
+    }
+}
@@ -0,0 +1,94 @@
+package com.useractivity.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.useractivity.cbor.CborConfig;
+import com.useractivity.dto.ActivityResponse;
+import com.useractivity.dto.TimelineResponse;
+import com.useractivity.entity.UserActivity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping and JSON / CBOR serialization of one timeline page, without the database. Payload sizes
+ * of both encodings are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    @Param({"0", "256", "4096"})
+    private int metadataBytes;
+
+    private List<UserActivity> entities;
+    private TimelineResponse timeline;
+    // Configured like Spring Boot's auto-configured mapper
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    // What Accept: application/cbor gets
+    private final ObjectMapper cborMapper = CborConfig.objectMapper();
+
+    @Setup
+    public void setUp() {
+        String metadata = BenchmarkSupport.metadataOfSize(metadataBytes);
+        entities = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            entities.add(BenchmarkSupport.activity(1_000 + i, 123L, metadata));
+        }
+        timeline = TimelineResponse.builder()
+                .userId(123L)
+                .page(0)
+                .size(pageSize)
+                .totalElements(10_000L)
+                .totalPages(10_000 / pageSize)
+                .activities(mapPage())
+                .build();
+        try {
+            System.out.printf("%nPayload bytes (pageSize=%d, metadataBytes=%d): json=%d, cbor=%d%n", pageSize,
+                    metadataBytes, serializeTimeline().length, serializeTimelineCbor().length);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public List<ActivityResponse> mapToResponse() {
+        return mapPage();
+    }
+
+    @Benchmark
+    public byte[] serializeTimeline() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(timeline);
+    }
+
+    @Benchmark
+    public byte[] serializeTimelineCbor() throws JsonProcessingException {
+        return cborMapper.writeValueAsBytes(timeline);
+    }
+
+    private List<ActivityResponse> mapPage() {
+        List<ActivityResponse> page = new ArrayList<>(entities.size());
+        for (UserActivity entity : entities) {
+            page.add(UserActivityService.mapToResponse(entity));
+        }
+        return page;
+    }
+}
@@ -0,0 +1,81 @@
+package com.useractivity.service;
+
+import com.useractivity.dto.BatchCreateActivityItem;
+import com.useractivity.dto.TimelineResponse;
+import com.useractivity.enums.ActivityType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timeline reads on H2 for one user with {@link #ROWS} activities: the cached first page, and a later page with
+ * exact (COUNT) and counter-backed totals.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class TimelineBenchmark {
+
+    private static final long USER_ID = 1L;
+    private static final int ROWS = 5_000;
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    @Param({"0", "4096"})
+    private int metadataBytes;
+
+    private ConfigurableApplicationContext context;
+    private UserActivityService service;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkSupport.startApplication();
+        service = context.getBean(UserActivityService.class);
+
+        String metadata = BenchmarkSupport.metadataOfSize(metadataBytes);
+        List<BatchCreateActivityItem> batch = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            batch.add(new BatchCreateActivityItem(USER_ID, ActivityType.LOGIN, "Seeded login " + i, metadata));
+            if (batch.size() == 1_000) {
+                service.createActivities(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TimelineResponse firstPageCached() {
+        return service.getTimeline(USER_ID, 0, pageSize, "counter");
+    }
+
+    @Benchmark
+    public TimelineResponse laterPageExactTotals() {
+        return service.getTimeline(USER_ID, 3, pageSize, "exact");
+    }
+
+    @Benchmark
+    public TimelineResponse laterPageCounterTotals() {
+        return service.getTimeline(USER_ID, 3, pageSize, "counter");
+    }
+}
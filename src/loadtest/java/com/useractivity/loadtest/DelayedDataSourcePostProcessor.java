@@ -0,0 +1,84 @@
+package com.useractivity.loadtest;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Adds a fixed delay to every statement execution of the embedded instance's connection pools, standing in for a
+ * database that is slower than in-memory H2. The delay is spent while the connection is held, as a network
+ * round trip would be.
+ * <p>
+ * The delay goes between each HikariCP pool and the driver rather than around the DataSource beans: the
+ * application DataSource is a proxy over the pools, so wrapping every bean would delay each statement twice, and
+ * the pools stay HikariDataSource beans for the pool metrics.
+ */
+class DelayedDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final long delayMillis;
+
+    DelayedDataSourcePostProcessor(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        // Pools start on first use, so the driver DataSource can still be replaced here
+        if (bean instanceof HikariDataSource pool && pool.getDataSource() == null) {
+            DataSource driver = DataSourceBuilder.create()
+                    .type(SimpleDriverDataSource.class)
+                    .url(pool.getJdbcUrl())
+                    .username(pool.getUsername())
+                    .password(pool.getPassword())
+                    .build();
+            pool.setDataSource(delayed(driver));
+        }
+        return bean;
+    }
+
+    private DataSource delayed(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return (Connection) proxy(Connection.class, super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return (Connection) proxy(Connection.class, super.getConnection(username, password));
+            }
+        };
+    }
+
+    private Object proxy(Class<?> type, Object target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (type == Connection.class && Statement.class.isAssignableFrom(method.getReturnType())) {
+                return proxy(method.getReturnType(), invoke(method, target, args));
+            }
+            if (type != Connection.class && method.getName().startsWith("execute")) {
+                Thread.sleep(delayMillis);
+            }
+            return invoke(method, target, args);
+        };
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
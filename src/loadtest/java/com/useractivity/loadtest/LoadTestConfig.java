@@ -0,0 +1,82 @@
+package com.useractivity.loadtest;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test settings, passed as {@code --key=value} program arguments.
+ */
+@Value
+@Builder
+public class LoadTestConfig {
+
+    // Requests per second across all endpoints
+    int rate;
+    int durationSeconds;
+    // Traffic before measurement starts, lets the JIT, pools and caches settle
+    int warmupSeconds;
+    // Requests allowed in flight; beyond this the scheduler waits, which shows up as latency
+    int maxInFlight;
+    // Activities are spread over user ids 1..users
+    int users;
+    int metadataBytes;
+    int createWeight;
+    int timelineWeight;
+    int deleteWeight;
+    // Base URL of a running instance; when null an embedded instance on H2 is started
+    String targetUrl;
+    // Embedded instance only: spring.threads.virtual.enabled (null keeps the configured mode)
+    Boolean virtualThreads;
+    // Embedded instance only: delay added to every statement execution, simulating a slower database
+    int dbLatencyMs;
+    // Embedded instance only: HikariCP maximum pool size (0 keeps the configured size)
+    int poolSize;
+    Path reportDirectory;
+
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        String[] mix = values.getOrDefault("mix", "60,30,10").split(",");
+        if (mix.length != 3) {
+            throw new IllegalArgumentException("--mix takes create,timeline,delete weights, e.g. 60,30,10");
+        }
+        LoadTestConfig config = LoadTestConfig.builder()
+                .rate(Integer.parseInt(values.getOrDefault("rate", "500")))
+                .durationSeconds(Integer.parseInt(values.getOrDefault("duration", "60")))
+                .warmupSeconds(Integer.parseInt(values.getOrDefault("warmup", "10")))
+                .maxInFlight(Integer.parseInt(values.getOrDefault("max-in-flight", "256")))
+                .users(Integer.parseInt(values.getOrDefault("users", "1000")))
+                .metadataBytes(Integer.parseInt(values.getOrDefault("metadata-bytes", "128")))
+                .createWeight(Integer.parseInt(mix[0].trim()))
+                .timelineWeight(Integer.parseInt(mix[1].trim()))
+                .deleteWeight(Integer.parseInt(mix[2].trim()))
+                .targetUrl(values.get("target-url"))
+                .virtualThreads(values.containsKey("virtual-threads")
+                        ? Boolean.valueOf(values.get("virtual-threads")) : null)
+                .dbLatencyMs(Integer.parseInt(values.getOrDefault("db-latency-ms", "0")))
+                .poolSize(Integer.parseInt(values.getOrDefault("pool-size", "0")))
+                .reportDirectory(Path.of(values.getOrDefault("report-dir", "target/loadtest")))
+                .build();
+        if (config.rate <= 0 || config.durationSeconds <= 0 || config.users <= 0 || config.maxInFlight <= 0) {
+            throw new IllegalArgumentException("rate, duration, users and max-in-flight must be positive");
+        }
+        if (config.targetUrl != null
+                && (config.virtualThreads != null || config.dbLatencyMs > 0 || config.poolSize > 0)) {
+            throw new IllegalArgumentException(
+                    "--virtual-threads, --db-latency-ms and --pool-size only apply to the embedded instance");
+        }
+        if (config.createWeight + config.timelineWeight + config.deleteWeight <= 0) {
+            throw new IllegalArgumentException("At least one --mix weight must be positive");
+        }
+        return config;
+    }
+}
@@ -0,0 +1,284 @@
+package com.useractivity.loadtest;
+
+import com.useractivity.UseractivityApplication;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Open-model load generator for the activity API. Requests are issued on a fixed schedule at the target rate
+ * whether or not earlier ones have completed, and latency is measured from the scheduled send time, so a
+ * stalled server shows up in the percentiles instead of silently lowering the offered load (coordinated
+ * omission). Latencies go into one HdrHistogram per endpoint; the summary and full percentile distributions
+ * are written to the report directory.
+ * <p>
+ * Run with {@code mvn -P loadtest test-compile exec:exec -Dloadtest.args="--rate=500 --duration=60"}.
+ */
+public final class LoadTestRunner {
+
+    enum Endpoint { CREATE, TIMELINE, DELETE }
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int DELETABLE_IDS_LIMIT = 100_000;
+
+    private final LoadTestConfig config;
+    private final String baseUrl;
+    private final HttpClient client;
+    private final ExecutorService responseExecutor;
+    private final Semaphore inFlight;
+    private final Map<Endpoint, Histogram> histograms = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, AtomicLong> errors = new EnumMap<>(Endpoint.class);
+    private final Queue<Long> deletableIds = new ConcurrentLinkedQueue<>();
+    private final AtomicLong deletableCount = new AtomicLong();
+    private final String createBody;
+    private volatile long measureFromNanos;
+
+    private LoadTestRunner(LoadTestConfig config, String baseUrl) {
+        this.config = config;
+        this.baseUrl = baseUrl;
+        this.responseExecutor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        this.client = HttpClient.newBuilder()
+                .executor(responseExecutor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.inFlight = new Semaphore(config.getMaxInFlight());
+        for (Endpoint endpoint : Endpoint.values()) {
+            histograms.put(endpoint, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(endpoint, new AtomicLong());
+        }
+        this.createBody = "{\"activityType\":\"LOGIN\",\"description\":\"Load test login\",\"metadata\":"
+                + jsonString(metadata(config.getMetadataBytes())) + "}";
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        ConfigurableApplicationContext context = null;
+        String baseUrl = config.getTargetUrl();
+        if (baseUrl == null) {
+            context = startEmbedded(config);
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        }
+        try {
+            LoadTestRunner runner = new LoadTestRunner(config, baseUrl);
+            long elapsedNanos = runner.run();
+            Path report = runner.writeReport(elapsedNanos);
+            System.out.println(Files.readString(report));
+            System.out.println("Report written to " + report.toAbsolutePath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startEmbedded(LoadTestConfig config) {
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "logging.level.root=WARN",
+                "logging.level.com.useractivity=WARN"));
+        if (config.getVirtualThreads() != null) {
+            properties.add("spring.threads.virtual.enabled=" + config.getVirtualThreads());
+        }
+        if (config.getPoolSize() > 0) {
+            properties.add("spring.datasource.hikari.maximum-pool-size=" + config.getPoolSize());
+        }
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(UseractivityApplication.class)
+                .profiles("test")
+                .properties(properties.toArray(String[]::new));
+        if (config.getDbLatencyMs() > 0) {
+            builder.initializers(context -> context.getBeanFactory()
+                    .addBeanPostProcessor(new DelayedDataSourcePostProcessor(config.getDbLatencyMs())));
+        }
+        return builder.run();
+    }
+
+    /**
+     * Drives traffic for warmup plus duration and returns the length of the measured window in nanoseconds.
+     */
+    private long run() throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.getRate();
+        long start = System.nanoTime();
+        measureFromNanos = start + TimeUnit.SECONDS.toNanos(config.getWarmupSeconds());
+        long end = measureFromNanos + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * intervalNanos;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            // Blocking here delays later sends, but they are still timed from their scheduled instant
+            inFlight.acquire();
+            send(pickEndpoint(), scheduled);
+        }
+
+        inFlight.acquire(config.getMaxInFlight());
+        responseExecutor.shutdown();
+        return end - measureFromNanos;
+    }
+
+    private Endpoint pickEndpoint() {
+        int total = config.getCreateWeight() + config.getTimelineWeight() + config.getDeleteWeight();
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        if (pick < config.getCreateWeight()) {
+            return Endpoint.CREATE;
+        }
+        if (pick < config.getCreateWeight() + config.getTimelineWeight()) {
+            return Endpoint.TIMELINE;
+        }
+        // Nothing created yet to delete: keep the offered rate by creating instead
+        return deletableCount.get() > 0 ? Endpoint.DELETE : Endpoint.CREATE;
+    }
+
+    private void send(Endpoint endpoint, long scheduledNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long userId = random.nextLong(1, config.getUsers() + 1L);
+        HttpRequest request = switch (endpoint) {
+            case CREATE -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/users/" + userId + "/activities"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(createBody))
+                    .build();
+            case TIMELINE -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/users/" + userId
+                            + "/activities/timeline?page=" + random.nextInt(3) + "&size=20"))
+                    .GET()
+                    .build();
+            case DELETE -> {
+                Long id = deletableIds.poll();
+                if (id == null) {
+                    id = Long.MAX_VALUE;
+                } else {
+                    deletableCount.decrementAndGet();
+                }
+                yield HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/activities/" + id)).DELETE().build();
+            }
+        };
+
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, failure) -> {
+                    try {
+                        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledNanos);
+                        if (scheduledNanos >= measureFromNanos) {
+                            histograms.get(endpoint).recordValue(Math.min(latencyMicros, HIGHEST_TRACKABLE_MICROS));
+                            if (failure != null || response.statusCode() >= 400) {
+                                errors.get(endpoint).incrementAndGet();
+                            }
+                        }
+                        if (failure == null && endpoint == Endpoint.CREATE && response.statusCode() == 201) {
+                            rememberCreatedId(response.body());
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+    }
+
+    private void rememberCreatedId(String body) {
+        Matcher matcher = ID.matcher(body);
+        if (matcher.find() && deletableCount.get() < DELETABLE_IDS_LIMIT) {
+            deletableIds.add(Long.parseLong(matcher.group(1)));
+            deletableCount.incrementAndGet();
+        }
+    }
+
+    private Path writeReport(long elapsedNanos) throws IOException {
+        Path directory = config.getReportDirectory();
+        Files.createDirectories(directory);
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path report = directory.resolve("report-" + timestamp + ".txt");
+        double seconds = elapsedNanos / 1e9;
+
+        try (PrintStream out = new PrintStream(Files.newOutputStream(report))) {
+            out.printf("User activity load test, %s%n", timestamp);
+            out.printf("Target:    %s%n", config.getTargetUrl() == null ? "embedded instance (H2)" : baseUrl);
+            out.printf("Offered:   %d req/s for %d s after %d s warmup, mix create/timeline/delete = %d/%d/%d%n",
+                    config.getRate(), config.getDurationSeconds(), config.getWarmupSeconds(),
+                    config.getCreateWeight(), config.getTimelineWeight(), config.getDeleteWeight());
+            out.printf("Settings:  users=%d, metadata=%d bytes, max in flight=%d%n",
+                    config.getUsers(), config.getMetadataBytes(), config.getMaxInFlight());
+            if (config.getTargetUrl() == null) {
+                out.printf("Embedded:  threads=%s, db latency=%d ms, pool size=%s, java=%s%n",
+                        config.getVirtualThreads() == null ? "configured"
+                                : config.getVirtualThreads() ? "virtual" : "platform",
+                        config.getDbLatencyMs(),
+                        config.getPoolSize() > 0 ? String.valueOf(config.getPoolSize()) : "configured",
+                        Runtime.version().feature());
+            }
+            out.println();
+            out.printf("%-9s %9s %9s %9s %10s %10s %10s %10s%n",
+                    "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+            long total = 0;
+            for (Endpoint endpoint : Endpoint.values()) {
+                Histogram histogram = histograms.get(endpoint);
+                total += histogram.getTotalCount();
+                out.printf("%-9s %9d %9d %9.1f %10.2f %10.2f %10.2f %10.2f%n",
+                        endpoint.name().toLowerCase(), histogram.getTotalCount(), errors.get(endpoint).get(),
+                        histogram.getTotalCount() / seconds,
+                        millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                        millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+            }
+            out.printf("%-9s %9d %9s %9.1f%n", "total", total, "", total / seconds);
+        }
+
+        // Full distributions, loadable in the HdrHistogram plotter
+        for (Endpoint endpoint : Endpoint.values()) {
+            Path hgrm = directory.resolve("report-" + timestamp + "-" + endpoint.name().toLowerCase() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(hgrm))) {
+                histograms.get(endpoint).outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        return report;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static String metadata(int bytes) {
+        if (bytes <= 0) {
+            return null;
+        }
+        StringBuilder json = new StringBuilder("{\"ip\":\"10.0.0.1\"");
+        for (int field = 0; json.length() < bytes - 1; field++) {
+            json.append(",\"field").append(field).append("\":\"value-").append(field).append('"');
+        }
+        return json.append('}').toString();
+    }
+
+    private static String jsonString(String value) {
+        return value == null ? "null" : "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
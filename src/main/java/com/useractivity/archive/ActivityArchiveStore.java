@@ -0,0 +1,393 @@
+package com.useractivity.archive;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.useractivity.entity.UserActivity;
+import com.useractivity.repository.ActivityFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage for archived activities: gzip-compressed NDJSON files per calendar month of created_at, rows newest
+ * first, in the same line format as the NDJSON export. Each month is split into {@value #USER_BUCKETS} files by
+ * user id, and files are keyed by the partition they were archived from:
+ * {@code user_activities-2025-01-p202501-u07.ndjson.gz} holds the rows of partition p202501 created in January 2025
+ * whose user id modulo {@value #USER_BUCKETS} is 7. A single user's export reads one bucket per month and partition.
+ * A partition's rows near a month boundary may belong to the neighbouring month; all files of a month are merged when
+ * read. Files without a partition or bucket suffix, from older versions, are still read.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActivityArchiveStore {
+
+    /**
+     * Files per month. Fixed, since the bucket of a user is derived from its file name when reading.
+     */
+    static final int USER_BUCKETS = 16;
+
+    private static final Pattern FILE_NAME =
+            Pattern.compile("user_activities-(\\d{4}-\\d{2})(?:-(p\\w+))?(?:-u(\\d{2}))?\\.ndjson\\.gz");
+    private static final Comparator<UserActivity> NEWEST_FIRST = Comparator
+            .comparing(UserActivity::getCreatedAt, Comparator.reverseOrder())
+            .thenComparing(UserActivity::getId, Comparator.reverseOrder());
+    private static final DateTimeFormatter CREATED_AT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.archive.directory:data/archive}")
+    private String directory;
+
+    /**
+     * Writes the rows of one partition (newest first, possibly spanning several months) into its monthly bucket
+     * files. Each file is written under a temporary name, forced to disk and then renamed, so a reader never sees a
+     * partial file. A rerun for the same partition after a crash replaces the files the earlier run wrote and
+     * deletes those it no longer writes; files of other partitions are never touched. Returns the number of rows
+     * written per month.
+     */
+    public Map<YearMonth, Long> write(String partition, Iterator<UserActivity> newestFirst) throws IOException {
+        Files.createDirectories(Path.of(directory));
+        Map<YearMonth, Long> written = new TreeMap<>();
+        List<Path> committed = new ArrayList<>();
+        MonthFiles current = null;
+        try {
+            while (newestFirst.hasNext()) {
+                UserActivity activity = newestFirst.next();
+                YearMonth month = YearMonth.from(activity.getCreatedAt());
+                if (current == null || !current.month.equals(month)) {
+                    if (current != null) {
+                        committed.addAll(current.commit());
+                    }
+                    current = new MonthFiles(month, partition);
+                }
+                current.write(activity);
+                written.merge(month, 1L, Long::sum);
+            }
+            if (current != null) {
+                committed.addAll(current.commit());
+                current = null;
+            }
+        } finally {
+            if (current != null) {
+                current.abandon();
+            }
+        }
+        // Left by an earlier run for this partition: buckets or months that received no rows this time
+        for (List<ArchiveFile> files : archivedMonths().values()) {
+            for (ArchiveFile file : files) {
+                if (partition.equals(file.partition) && !committed.contains(file.getPath())) {
+                    Files.deleteIfExists(file.getPath());
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Archived non-deleted activities, newest first, for one user (when {@code userId} is non-null) matching
+     * {@code filter}. Only months overlapping the filter's window are opened, and for one user only its bucket
+     * file of each month. Close the stream.
+     */
+    public Stream<UserActivity> read(Long userId, ActivityFilter filter) {
+        LocalDateTime from = filter.getFrom();
+        LocalDateTime to = filter.getTo();
+        List<List<Path>> months = new ArrayList<>();
+        for (Map.Entry<YearMonth, List<ArchiveFile>> month : archivedMonths().entrySet()) {
+            boolean afterFrom = from == null || !month.getKey().atEndOfMonth().isBefore(from.toLocalDate());
+            boolean beforeTo = to == null || month.getKey().atDay(1).atStartOfDay().isBefore(to);
+            if (afterFrom && beforeTo) {
+                months.add(month.getValue().stream()
+                        .filter(file -> userId == null || file.holds(userId))
+                        .map(ArchiveFile::getPath)
+                        .toList());
+            }
+        }
+        return months.stream()
+                .flatMap(this::newestFirst)
+                .filter(activity -> userId == null || userId.equals(activity.getUserId()))
+                .filter(activity -> filter.matches(activity.getActivityType(), activity.getCreatedAt()));
+    }
+
+    /**
+     * Archive files by month, newest month first.
+     */
+    public Map<YearMonth, List<ArchiveFile>> archivedMonths() {
+        Map<YearMonth, List<ArchiveFile>> months = new TreeMap<>(Comparator.reverseOrder());
+        if (!Files.isDirectory(Path.of(directory))) {
+            return months;
+        }
+        try (Stream<Path> files = Files.list(Path.of(directory))) {
+            files.forEach(file -> {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    Integer bucket = matcher.group(3) == null ? null : Integer.valueOf(matcher.group(3));
+                    months.computeIfAbsent(YearMonth.parse(matcher.group(1)), month -> new ArrayList<>())
+                            .add(new ArchiveFile(file, matcher.group(2), bucket));
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return months;
+    }
+
+    /**
+     * One archive file; {@code partition} is null for a file written before files were keyed by partition, and
+     * {@code bucket} null for a file that holds every user of its month.
+     */
+    public static class ArchiveFile {
+        private final Path path;
+        private final String partition;
+        private final Integer bucket;
+
+        ArchiveFile(Path path, String partition, Integer bucket) {
+            this.path = path;
+            this.partition = partition;
+            this.bucket = bucket;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        boolean holds(Long userId) {
+            return bucket == null || bucket == bucketOf(userId);
+        }
+    }
+
+    static int bucketOf(Long userId) {
+        return (int) Math.floorMod(userId, (long) USER_BUCKETS);
+    }
+
+    // Rows of one month's files, each newest first, merged into one newest-first stream
+    private Stream<UserActivity> newestFirst(List<Path> files) {
+        if (files.size() == 1) {
+            return lines(files.get(0)).map(this::parse);
+        }
+        List<Stream<UserActivity>> opened = new ArrayList<>();
+        PriorityQueue<PeekingIterator> heads = new PriorityQueue<>(
+                Comparator.comparing(PeekingIterator::peek, NEWEST_FIRST));
+        try {
+            for (Path file : files) {
+                Stream<UserActivity> rows = lines(file).map(this::parse);
+                opened.add(rows);
+                PeekingIterator head = new PeekingIterator(rows.iterator());
+                if (head.peek() != null) {
+                    heads.add(head);
+                }
+            }
+        } catch (RuntimeException e) {
+            opened.forEach(Stream::close);
+            throw e;
+        }
+        Iterator<UserActivity> merged = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public UserActivity next() {
+                PeekingIterator head = heads.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                UserActivity next = head.next();
+                requeue(head);
+                // A row in two files of the month (an older version's file next to a rerun's) comes out once; both
+                // copies sort next to each other
+                while (!heads.isEmpty() && heads.peek().peek().getId().equals(next.getId())) {
+                    PeekingIterator duplicate = heads.poll();
+                    duplicate.next();
+                    requeue(duplicate);
+                }
+                return next;
+            }
+
+            private void requeue(PeekingIterator head) {
+                if (head.peek() != null) {
+                    heads.add(head);
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false)
+                .onClose(() -> opened.forEach(Stream::close));
+    }
+
+    private Stream<String> lines(Path file) {
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file), 64 * 1024), StandardCharsets.UTF_8));
+            return reader.lines().onClose(() -> {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private UserActivity parse(String line) {
+        try {
+            JsonNode row = objectMapper.readTree(line);
+            return UserActivity.builder()
+                    .id(row.get("id").asLong())
+                    .userId(row.get("userId").asLong())
+                    .activityType(row.get("activityType").asText())
+                    .description(row.get("description").asText())
+                    .metadata(row.hasNonNull("metadata") ? row.get("metadata").asText() : null)
+                    .createdAt(LocalDateTime.parse(row.get("createdAt").asText(), CREATED_AT_FORMAT))
+                    .isDeleted(false)
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String fileName(YearMonth month, String partition, int bucket) {
+        return String.format("user_activities-%s-%s-u%02d.ndjson.gz", month, partition, bucket);
+    }
+
+    private static class PeekingIterator {
+        private final Iterator<UserActivity> rows;
+        private UserActivity next;
+
+        PeekingIterator(Iterator<UserActivity> rows) {
+            this.rows = rows;
+            this.next = rows.hasNext() ? rows.next() : null;
+        }
+
+        UserActivity peek() {
+            return next;
+        }
+
+        UserActivity next() {
+            UserActivity current = next;
+            next = rows.hasNext() ? rows.next() : null;
+            return current;
+        }
+    }
+
+    private class MonthFiles {
+        private final YearMonth month;
+        private final String partition;
+        private final Map<Integer, BucketFile> buckets = new TreeMap<>();
+
+        MonthFiles(YearMonth month, String partition) {
+            this.month = month;
+            this.partition = partition;
+        }
+
+        void write(UserActivity activity) throws IOException {
+            int bucket = bucketOf(activity.getUserId());
+            BucketFile file = buckets.get(bucket);
+            if (file == null) {
+                file = new BucketFile(fileName(month, partition, bucket));
+                buckets.put(bucket, file);
+            }
+            file.write(activity);
+        }
+
+        List<Path> commit() throws IOException {
+            List<Path> committed = new ArrayList<>();
+            for (BucketFile file : buckets.values()) {
+                committed.add(file.commit());
+            }
+            return committed;
+        }
+
+        void abandon() throws IOException {
+            IOException failure = null;
+            for (BucketFile file : buckets.values()) {
+                try {
+                    file.abandon();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private class BucketFile {
+        private final Path target;
+        private final Path temporary;
+        private final FileOutputStream file;
+        private final GZIPOutputStream gzip;
+        private final JsonGenerator generator;
+
+        BucketFile(String name) throws IOException {
+            this.target = Path.of(directory).resolve(name);
+            this.temporary = Path.of(directory).resolve(name + ".tmp");
+            this.file = new FileOutputStream(temporary.toFile());
+            this.gzip = new GZIPOutputStream(file, 64 * 1024);
+            this.generator = objectMapper.getFactory().createGenerator(gzip)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        void write(UserActivity activity) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", activity.getId());
+            generator.writeNumberField("userId", activity.getUserId());
+            generator.writeStringField("activityType", activity.getActivityType());
+            generator.writeStringField("description", activity.getDescription());
+            generator.writeStringField("metadata", activity.getMetadata());
+            generator.writeStringField("createdAt", CREATED_AT_FORMAT.format(activity.getCreatedAt()));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        Path commit() throws IOException {
+            generator.close();
+            gzip.finish();
+            file.getFD().sync();
+            gzip.close();
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return target;
+        }
+
+        void abandon() throws IOException {
+            try {
+                generator.close();
+                gzip.close();
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.useractivity.archive;
+
+import com.useractivity.entity.UserActivity;
+import com.useractivity.enums.ActivityType;
+import com.useractivity.event.ActivitiesArchivedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Moves partitions that fell out of the retention window to cold storage. Per partition: its non-deleted rows
+ * are written to monthly archive files, the per-user counters are reduced and the archival is recorded in one
+ * transaction, then the partition is dropped. A run interrupted after the record only drops the partition when
+ * retried, so counters are never reduced twice. Soft-deleted rows are not archived. After the drop the users
+ * whose rows were archived are announced with {@link ActivitiesArchivedEvent}, so cached timelines reload.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityArchiver {
+
+    private static final RowMapper<UserActivity> ROW_MAPPER = (rs, rowNum) -> UserActivity.builder()
+            .id(rs.getLong("id"))
+            .userId(rs.getLong("user_id"))
+            .activityType(ActivityType.nameOf(rs.getByte("activity_type")))
+            .description(rs.getString("description"))
+            .metadata(rs.getString("metadata"))
+            // As stored; getTimestamp would shift it into the JVM's zone and move rows across month files
+            .createdAt(rs.getObject("created_at", LocalDateTime.class))
+            .isDeleted(false)
+            .build();
+
+    private final ActivityPartitionManager partitionManager;
+    private final ActivityArchiveStore archiveStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.archive.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+
+    private JdbcTemplate streamingJdbcTemplate;
+
+    @PostConstruct
+    void init() {
+        // Rows per round trip of the server-side cursor, as for exports
+        streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingJdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    @Scheduled(cron = "${app.archive.cron:0 30 3 * * *}")
+    public void archiveExpiredPartitions() {
+        if (!enabled || !partitionManager.isPartitioned()) {
+            return;
+        }
+        partitionManager.runExclusively(ActivityPartitionManager.MAINTENANCE_LOCK, () -> {
+            LocalDateTime cutoff = YearMonth.now(ZoneOffset.UTC).minusMonths(retentionMonths).atDay(1).atStartOfDay();
+            for (ActivityPartitionManager.ActivityPartition partition : partitionManager.partitions()) {
+                if (partition.getUpperBound().isAfter(cutoff) || !archive(partition)) {
+                    break;
+                }
+            }
+        });
+    }
+
+    private boolean archive(ActivityPartitionManager.ActivityPartition partition) {
+        String name = partition.getName();
+        try {
+            Integer recorded = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM user_activity_archives WHERE partition_name = ?", Integer.class, name);
+            if (recorded == null || recorded == 0) {
+                Map<YearMonth, Long> written;
+                try (Stream<UserActivity> rows = streamingJdbcTemplate.queryForStream(
+                        "SELECT id, user_id, activity_type, description, metadata, created_at " +
+                                "FROM " + ActivityPartitionManager.TABLE + " PARTITION (" + name + ") " +
+                                "WHERE is_deleted = FALSE ORDER BY created_at DESC, id DESC", ROW_MAPPER)) {
+                    written = archiveStore.write(name, rows.iterator());
+                }
+                long archivedRows = written.values().stream().mapToLong(Long::longValue).sum();
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.update("UPDATE user_activity_counts c JOIN (SELECT user_id, COUNT(*) AS archived " +
+                            "FROM " + ActivityPartitionManager.TABLE + " PARTITION (" + name + ") " +
+                            "WHERE is_deleted = FALSE GROUP BY user_id) a ON a.user_id = c.user_id " +
+                            "SET c.active_count = c.active_count - a.archived, c.version = c.version + 1, " +
+                            "c.updated_at = ?", LocalDateTime.now());
+                    jdbcTemplate.update("INSERT INTO user_activity_archives (partition_name, archived_rows, archived_at) " +
+                            "VALUES (?, ?, CURRENT_TIMESTAMP)", name, archivedRows);
+                });
+                log.info("Archived partition {} ({} rows) to {}", name, archivedRows, written.keySet());
+            }
+            // Read before the drop, also on a retry that only drops
+            Set<Long> userIds = new HashSet<>(jdbcTemplate.queryForList("SELECT DISTINCT user_id FROM " +
+                    ActivityPartitionManager.TABLE + " PARTITION (" + name + ") WHERE is_deleted = FALSE", Long.class));
+            partitionManager.dropPartition(name);
+            log.info("Dropped archived partition {}", name);
+            eventPublisher.publishEvent(new ActivitiesArchivedEvent(userIds));
+            return true;
+        } catch (IOException | DataAccessException e) {
+            log.error("Archiving partition {} failed, retrying on the next run", name, e);
+            return false;
+        }
+    }
+}
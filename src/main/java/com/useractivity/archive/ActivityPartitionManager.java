@@ -0,0 +1,176 @@
+package com.useractivity.archive;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Keeps monthly RANGE partitions of user_activities (on UNIX_TIMESTAMP(created_at), see V5 migration) ahead of
+ * the calendar: future months are split off the empty catch-all partition {@code pmax} at startup and daily, so
+ * rows never pile up in it. Partition names are {@code pYYYYMM} for the month of created_at they hold.
+ * <p>
+ * Only MySQL tables that are actually partitioned are managed; elsewhere (H2 in tests, an unmigrated table)
+ * {@link #isPartitioned()} stays false and the application reads and writes the table as before.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityPartitionManager {
+
+    static final String TABLE = "user_activities";
+    private static final String CATCH_ALL = "pmax";
+    static final String MAINTENANCE_LOCK = "user_activities_partition_maintenance";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.partitioning.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    private volatile boolean mysql;
+    private volatile boolean partitioned;
+
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        mysql = "MySQL".equalsIgnoreCase(database);
+        if (!enabled) {
+            return;
+        }
+        if (!mysql) {
+            log.info("Partition maintenance skipped: {} is not MySQL", database);
+            return;
+        }
+        Integer partitionCount = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL",
+                Integer.class, TABLE);
+        if (partitionCount == null || partitionCount == 0) {
+            log.warn("{} is not partitioned; apply db/migration/V5__partition_user_activities.sql", TABLE);
+            return;
+        }
+        partitioned = true;
+        maintain();
+    }
+
+    @Scheduled(cron = "${app.partitioning.maintenance-cron:0 15 2 * * *}")
+    public void maintain() {
+        if (partitioned) {
+            runExclusively(MAINTENANCE_LOCK, this::addFuturePartitions);
+        }
+    }
+
+    /**
+     * Bounded partitions in ascending order, the catch-all excluded; empty when the table is not partitioned.
+     */
+    public List<ActivityPartition> partitions() {
+        return jdbcTemplate.query(
+                "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM INFORMATION_SCHEMA.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                        "AND PARTITION_DESCRIPTION <> 'MAXVALUE' ORDER BY PARTITION_ORDINAL_POSITION",
+                (rs, rowNum) -> new ActivityPartition(rs.getString(1),
+                        LocalDateTime.ofEpochSecond(Long.parseLong(rs.getString(2)), 0, ZoneOffset.UTC)),
+                TABLE);
+    }
+
+    /**
+     * Runs {@code work} while holding the MySQL named lock {@code lockName}, so only one instance runs a
+     * maintenance job at a time; skips the run when another instance holds it. Other databases run it directly.
+     */
+    void runExclusively(String lockName, Runnable work) {
+        if (!mysql) {
+            work.run();
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean acquired;
+            try (PreparedStatement lock = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+                lock.setString(1, lockName);
+                try (ResultSet rs = lock.executeQuery()) {
+                    acquired = rs.next() && rs.getInt(1) == 1;
+                }
+            }
+            if (!acquired) {
+                log.info("{} is held by another instance, skipped", lockName);
+                return null;
+            }
+            try {
+                work.run();
+            } finally {
+                try (PreparedStatement release = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                    release.setString(1, lockName);
+                    release.execute();
+                }
+            }
+            return null;
+        });
+    }
+
+    void dropPartition(String name) {
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + name);
+    }
+
+    private void addFuturePartitions() {
+        List<ActivityPartition> partitions = partitions();
+        YearMonth last = YearMonth.now(ZoneOffset.UTC).plusMonths(monthsAhead);
+        // Upper bounds are the first instant of the following month
+        YearMonth next = partitions.isEmpty()
+                ? YearMonth.now(ZoneOffset.UTC)
+                : YearMonth.from(partitions.get(partitions.size() - 1).getUpperBound());
+        if (next.isAfter(last)) {
+            return;
+        }
+        StringJoiner definitions = new StringJoiner(", ");
+        for (YearMonth month = next; !month.isAfter(last); month = month.plusMonths(1)) {
+            LocalDate upper = month.plusMonths(1).atDay(1);
+            definitions.add(String.format("PARTITION %s VALUES LESS THAN (%d)",
+                    partitionName(month), upper.atStartOfDay().toEpochSecond(ZoneOffset.UTC)));
+        }
+        definitions.add("PARTITION " + CATCH_ALL + " VALUES LESS THAN MAXVALUE");
+        try {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + CATCH_ALL + " INTO (" + definitions + ")");
+            log.info("Added partitions of {} for {} to {}", TABLE, next, last);
+        } catch (DataAccessException e) {
+            log.error("Failed to add partitions of {} for {} to {}", TABLE, next, last, e);
+        }
+    }
+
+    static String partitionName(YearMonth month) {
+        return String.format("p%04d%02d", month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * A bounded partition: holds rows with created_at before {@code upperBound} (and after the previous one's).
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class ActivityPartition {
+        private final String name;
+        private final LocalDateTime upperBound;
+    }
+}
@@ -0,0 +1,136 @@
+package com.useractivity.archive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Physically removes soft-deleted activities once they have been deleted for longer than the grace period.
+ * Candidates are found in primary key order through idx_deleted (is_deleted, id) and removed in small batches by
+ * full primary key, so each DELETE locks few rows and, on a partitioned table, touches only their partitions.
+ * Batches are paced to a maximum row rate so replicas can keep up, and a run stops after a time budget; the next
+ * run continues from the same id.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DeletedActivityPurger {
+
+    private static final String PURGE_LOCK = "user_activities_purge";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ActivityPartitionManager partitionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.purge.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.purge.grace-period-days:30}")
+    private long gracePeriodDays;
+
+    @Value("${app.purge.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.purge.max-rows-per-second:2000}")
+    private int maxRowsPerSecond;
+
+    @Value("${app.purge.max-run-seconds:300}")
+    private long maxRunSeconds;
+
+    private Counter purgedRows;
+    private Timer batchTimer;
+    private Timer runTimer;
+    // Sweep position, carried over when a run ends on its time budget
+    private volatile long resumeAfterId;
+
+    @PostConstruct
+    void init() {
+        purgedRows = Counter.builder("useractivity.purge.rows")
+                .description("Soft-deleted activities physically removed")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("useractivity.purge.batch")
+                .description("Time spent finding and deleting one purge batch, excluding throttling pauses")
+                .register(meterRegistry);
+        runTimer = Timer.builder("useractivity.purge.run")
+                .description("Duration of a purge run, including throttling pauses")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.purge.cron:0 45 * * * *}")
+    public void scheduledPurge() {
+        if (enabled) {
+            partitionManager.runExclusively(PURGE_LOCK, this::purge);
+        }
+    }
+
+    /**
+     * Runs one throttled sweep, bounded by the run time budget, and returns the number of rows removed.
+     */
+    public long purge() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(gracePeriodDays));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(maxRunSeconds);
+        long minNanosPerRow = TimeUnit.SECONDS.toNanos(1) / Math.max(1, maxRowsPerSecond);
+        Timer.Sample run = Timer.start(meterRegistry);
+        long removed = 0;
+        try {
+            while (System.nanoTime() < deadline) {
+                long started = System.nanoTime();
+                List<Object[]> keys = jdbcTemplate.query(
+                        "SELECT id, created_at FROM user_activities " +
+                                "WHERE is_deleted = TRUE AND id > ? AND updated_at < ? ORDER BY id LIMIT ?",
+                        (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getTimestamp(2)},
+                        resumeAfterId, cutoff, batchSize);
+                if (keys.isEmpty()) {
+                    // Swept to the end; the next run starts over from the lowest id
+                    resumeAfterId = 0;
+                    break;
+                }
+                int deleted = delete(keys);
+                resumeAfterId = (Long) keys.get(keys.size() - 1)[0];
+                long elapsed = System.nanoTime() - started;
+                batchTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                purgedRows.increment(deleted);
+                removed += deleted;
+
+                long pause = keys.size() * minNanosPerRow - elapsed;
+                if (pause > 0) {
+                    TimeUnit.NANOSECONDS.sleep(pause);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            long nanos = run.stop(runTimer);
+            if (removed > 0) {
+                log.info("Purged {} soft-deleted activities in {} ms", removed, TimeUnit.NANOSECONDS.toMillis(nanos));
+            }
+        }
+        return removed;
+    }
+
+    private int delete(List<Object[]> keys) {
+        // Full primary key (id, created_at): a row is located directly, in its own partition
+        String rows = String.join(", ", Collections.nCopies(keys.size(), "(?, ?)"));
+        List<Object> arguments = new ArrayList<>(keys.size() * 2);
+        for (Object[] key : keys) {
+            arguments.add(key[0]);
+            arguments.add(key[1]);
+        }
+        return jdbcTemplate.update("DELETE FROM user_activities WHERE (id, created_at) IN (" + rows + ") " +
+                "AND is_deleted = TRUE", arguments.toArray());
+    }
+}
@@ -0,0 +1,142 @@
+package com.useractivity.cbor;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.useractivity.dto.ActivityResponse;
+import com.useractivity.enums.ActivityType;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * CBOR for clients sending {@code Accept: application/cbor} (and CBOR request bodies). Beyond the smaller
+ * encoding, values are kept in their cheapest form: timestamps as epoch milliseconds (UTC) instead of formatted
+ * strings, and activity types as their stored {@link ActivityType#getCode() codes} (the numbers in the
+ * activity_types table, which never change), in responses and request bodies alike.
+ */
+@Configuration
+public class CborConfig {
+
+    // Replaces the converter Spring MVC would register with a plain CBOR mapper
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(objectMapper());
+    }
+
+    public static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.cbor()
+                .modulesToInstall(new SimpleModule("cbor-values")
+                        .addSerializer(LocalDateTime.class, new EpochMillisSerializer())
+                        .addSerializer(ActivityType.class, new ActivityTypeCodeSerializer())
+                        .addDeserializer(ActivityType.class, new ActivityTypeCodeDeserializer()))
+                .mixIn(ActivityResponse.class, CborActivityResponse.class)
+                .build();
+    }
+
+    /**
+     * Activity and error timestamps are wall-clock times of the application's clock, so they are converted in the
+     * JVM's zone.
+     */
+    public static long epochMillis(LocalDateTime value) {
+        return value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Writes the code of a known activity type and {@link ActivityType#UNKNOWN} for anything else (the code of a
+     * type added by a newer version).
+     */
+    public static void writeActivityType(String name, JsonGenerator generator) throws IOException {
+        ActivityType type = null;
+        if (name != null) {
+            try {
+                type = ActivityType.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                // Fall through to the name
+            }
+        }
+        if (type != null) {
+            generator.writeNumber(type.getCode());
+        } else {
+            generator.writeString(ActivityType.UNKNOWN);
+        }
+    }
+
+    interface CborActivityResponse {
+        @JsonSerialize(using = ActivityTypeSerializer.class)
+        String getActivityType();
+    }
+
+    static class EpochMillisSerializer extends StdSerializer<LocalDateTime> {
+        EpochMillisSerializer() {
+            super(LocalDateTime.class);
+        }
+
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeNumber(epochMillis(value));
+        }
+    }
+
+    static class ActivityTypeCodeSerializer extends StdSerializer<ActivityType> {
+        ActivityTypeCodeSerializer() {
+            super(ActivityType.class);
+        }
+
+        @Override
+        public void serialize(ActivityType value, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeNumber(value.getCode());
+        }
+    }
+
+    // Codes as written by the serializer; names are accepted too
+    static class ActivityTypeCodeDeserializer extends StdDeserializer<ActivityType> {
+        ActivityTypeCodeDeserializer() {
+            super(ActivityType.class);
+        }
+
+        @Override
+        public ActivityType deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                int code = parser.getIntValue();
+                for (ActivityType type : ActivityType.values()) {
+                    if (type.getCode() == code) {
+                        return type;
+                    }
+                }
+                throw context.weirdNumberException(code, ActivityType.class, "not an activity type code");
+            }
+            String name = parser.getValueAsString();
+            try {
+                return ActivityType.valueOf(name);
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw context.weirdStringException(name, ActivityType.class, "not an activity type name");
+            }
+        }
+    }
+
+    static class ActivityTypeSerializer extends StdSerializer<String> {
+        ActivityTypeSerializer() {
+            super(String.class);
+        }
+
+        @Override
+        public void serialize(String value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            writeActivityType(value, generator);
+        }
+    }
+}
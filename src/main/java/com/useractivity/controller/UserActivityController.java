@@ -1,9 +1,20 @@
 package com.useractivity.controller;
 
 import com.useractivity.dto.ActivityResponse;
+import com.useractivity.dto.ActivityStatsResponse;
+import com.useractivity.dto.BatchCreateActivityItem;
+import com.useractivity.dto.BatchCreateResponse;
+import com.useractivity.dto.BatchDeleteResponse;
 import com.useractivity.dto.CreateActivityRequest;
+import com.useractivity.dto.IngestionAcceptedResponse;
 import com.useractivity.dto.TimelineResponse;
+import com.useractivity.enums.ExportFormat;
+import com.useractivity.repository.ActivityFilter;
+import com.useractivity.service.ActivityExportService;
+import com.useractivity.service.ActivityStatsService;
+import com.useractivity.service.TimelineVersion;
 import com.useractivity.service.UserActivityService;
+import com.useractivity.stream.ActivityStreamBus;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import io.swagger.v3.oas.annotations.Operation;
@@ -18,10 +29,21 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Value;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -32,6 +54,9 @@ import org.springframework.web.bind.annotation.*;
 public class UserActivityController {
 
     private final UserActivityService userActivityService;
+    private final ActivityExportService activityExportService;
+    private final ActivityStreamBus activityStreamBus;
+    private final ActivityStatsService activityStatsService;
 
     @Value("${app.pagination.max-size:100}")
     private int maxPageSize;
@@ -91,13 +116,122 @@ public class UserActivityController {
             )
             @Valid @RequestBody CreateActivityRequest request) {
 
-        log.info("\nCreateActivity for userId: {}", userId);
+        log.debug("CreateActivity for userId: {}, request: {}", userId, request);
         ActivityResponse response = userActivityService.createActivity(userId, request);
 
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
 
+    @PostMapping("/users/{userId}/activities:async")
+    @Operation(
+            summary = "Accept a user activity for asynchronous ingestion",
+            description = "Validates the activity and places it on the in-memory write-behind queue, returning 202 without " +
+                    "waiting for the database. The activity is written within the configured flush interval. The response " +
+                    "carries a correlation id (the X-Correlation-Id header when supplied). Returns 429 when the queue is full. " +
+                    "Only available when app.ingestion.async.enabled=true."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Activity accepted for ingestion",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = IngestionAcceptedResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad Request - Validation failure (missing required fields, invalid enum value, or blank description)",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Async ingestion is not enabled on this instance",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Too Many Requests - The ingestion queue is full, retry after the Retry-After delay",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<IngestionAcceptedResponse> enqueueActivity(
+            @Parameter(
+                    description = "The unique identifier of the user performing the activity",
+                    required = true,
+                    example = "123"
+            ) @PathVariable Long userId,
+            @Parameter(
+                    description = "Optional client-supplied correlation id (at most 255 characters); generated when absent",
+                    example = "8f14e45f-ceea-467f-a0e6-5b1d8e3a0c11"
+            ) @RequestHeader(name = "X-Correlation-Id", required = false) String correlationId,
+            @Valid @RequestBody CreateActivityRequest request) {
+
+        IngestionAcceptedResponse response = userActivityService.enqueueActivity(userId, request, correlationId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @PostMapping("/activities:batch")
+    @Operation(
+            summary = "Create activities in bulk",
+            description = "Records many activities, possibly for different users, in a single request and transaction. " +
+                    "Every item is validated up front; invalid items are reported as REJECTED without affecting the others, " +
+                    "and valid items are written with JDBC batching. Results are returned per item in request order. " +
+                    "Request and response may also be CBOR (Content-Type / Accept: application/cbor); CBOR responses carry " +
+                    "createdAt as epoch milliseconds (UTC) and activityType as its stored code (LOGIN=1, LOGOUT=2, ...)."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "All activities created successfully",
+                    content = {
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = BatchCreateResponse.class)),
+                            @Content(mediaType = "application/cbor", schema = @Schema(implementation = BatchCreateResponse.class))
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "207",
+                    description = "Some activities were rejected by validation, see the per-item results",
+                    content = {
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = BatchCreateResponse.class)),
+                            @Content(mediaType = "application/cbor", schema = @Schema(implementation = BatchCreateResponse.class))
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad Request - Empty batch, batch larger than the configured maximum, or malformed body",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal Server Error",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<BatchCreateResponse> createActivities(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Activities to create",
+                    required = true,
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    name = "Login Activities",
+                                    value = "[{\"userId\": 123, \"activityType\": \"LOGIN\", \"description\": \"User logged in from web\"}, " +
+                                            "{\"userId\": 456, \"activityType\": \"LOGOUT\", \"description\": \"User logged out\"}]"
+                            )
+                    )
+            )
+            @RequestBody List<BatchCreateActivityItem> items) {
+
+        log.debug("Batch create for {} activities", items.size());
+        BatchCreateResponse response = userActivityService.createActivities(items);
+
+        HttpStatus status = response.getRejected() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(response);
+    }
+
+
     @DeleteMapping("/activities/{activityId}")
     @Operation(
             summary = "Soft delete an activity",
@@ -133,11 +267,64 @@ public class UserActivityController {
                     example = "1001"
             ) @PathVariable Long activityId) {
 
-        log.info("Deleting activity for activityId: {}", activityId);
+        log.debug("Deleting activity for activityId: {}", activityId);
         userActivityService.deleteActivity(activityId);
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/activities:batchDelete")
+    @Operation(
+            summary = "Soft delete activities in bulk",
+            description = "Soft deletes many activities, possibly of different users, in a single request and transaction. " +
+                    "Duplicate ids are collapsed. Ids that do not exist or were already deleted are reported per id " +
+                    "as NOT_FOUND or ALREADY_DELETED without affecting the others."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "All activities deleted successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BatchDeleteResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "207",
+                    description = "Some ids were not found or already deleted, see the per-id results",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BatchDeleteResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad Request - Empty batch, null id, batch larger than the configured maximum, or malformed body",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal Server Error",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<BatchDeleteResponse> deleteActivities(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Ids of the activities to delete",
+                    required = true,
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(name = "Activity Ids", value = "[1001, 1002, 1003]")
+                    )
+            )
+            @RequestBody List<Long> activityIds) {
+
+        log.debug("Batch delete for {} activities", activityIds.size());
+        BatchDeleteResponse response = userActivityService.deleteActivities(activityIds);
+
+        HttpStatus status = response.getDeleted().equals(response.getReceived()) ? HttpStatus.OK : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(response);
+    }
+
 
     @GetMapping("/users/{userId}/activities/timeline")
     @Operation(
@@ -145,27 +332,47 @@ public class UserActivityController {
             description = "Retrieves a paginated and sorted timeline of activities for a specific user. " +
                     "Results are sorted by creation date in descending order (newest first). " +
                     "Soft-deleted activities are automatically excluded from the results. " +
-                    "Supports pagination with configurable page number and page size."
+                    "Supports pagination with configurable page number and page size. " +
+                    "Passing a cursor parameter (empty for the first page) switches to cursor mode, which seeks directly " +
+                    "past the last seen activity, returns nextCursor instead of totals and ignores the page parameter. " +
+                    "The totals parameter chooses how totalElements/totalPages are computed: exact (COUNT query), " +
+                    "counter (maintained per-user count, default) or none (omitted, hasNext returned instead). " +
+                    "With Accept: application/cbor the response is CBOR, with createdAt as epoch milliseconds (UTC) and " +
+                    "activityType as its stored code (LOGIN=1, LOGOUT=2, ...). " +
+                    "Responses carry an ETag and Last-Modified that change with every create or delete of the user's " +
+                    "activities; send them back as If-None-Match / If-Modified-Since to get 304 Not Modified instead of " +
+                    "the page while nothing changed. " +
+                    "Optional from/to (ISO-8601, from inclusive, to exclusive) and types restrict the timeline to a " +
+                    "created_at window and some activity types; filtered pages are read through the timeline indexes " +
+                    "and report hasNext instead of counter totals (totals=exact counts the matching activities)."
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
                     description = "Timeline retrieved successfully",
-                    content = @Content(
-                            mediaType = "application/json",
-                            schema = @Schema(implementation = TimelineResponse.class),
-                            examples = @ExampleObject(
-                                    value = "{\"userId\": 123, \"page\": 0, \"size\": 20, \"totalElements\": 52, \"totalPages\": 3, " +
-                                            "\"activities\": [{\"id\": 1001, \"activityType\": \"LOGIN\", \"description\": \"User logged in from web\", " +
-                                            "\"metadata\": \"{\\\"ip\\\":\\\"192.168.1.10\\\"}\", \"createdAt\": \"2025-12-10T10:15:30Z\"}, " +
-                                            "{\"id\": 1000, \"activityType\": \"PROFILE_UPDATE\", \"description\": \"User updated profile picture\", " +
-                                            "\"metadata\": null, \"createdAt\": \"2025-12-10T09:30:15Z\"}]}"
-                            )
-                    )
+                    content = {
+                            @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = TimelineResponse.class),
+                                    examples = @ExampleObject(
+                                            value = "{\"userId\": 123, \"page\": 0, \"size\": 20, \"totalElements\": 52, \"totalPages\": 3, " +
+                                                    "\"activities\": [{\"id\": 1001, \"activityType\": \"LOGIN\", \"description\": \"User logged in from web\", " +
+                                                    "\"metadata\": \"{\\\"ip\\\":\\\"192.168.1.10\\\"}\", \"createdAt\": \"2025-12-10T10:15:30Z\"}, " +
+                                                    "{\"id\": 1000, \"activityType\": \"PROFILE_UPDATE\", \"description\": \"User updated profile picture\", " +
+                                                    "\"metadata\": null, \"createdAt\": \"2025-12-10T09:30:15Z\"}]}"
+                                    )
+                            ),
+                            @Content(mediaType = "application/cbor", schema = @Schema(implementation = TimelineResponse.class))
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Not Modified - The timeline has not changed since the ETag / date sent by the client"
             ),
             @ApiResponse(
                     responseCode = "400",
-                    description = "Bad Request - Invalid pagination parameters (negative page or size values)",
+                    description = "Bad Request - Invalid pagination parameters (negative page or size values), totals mode, " +
+                            "activity type or from not before to",
                     content = @Content(mediaType = "application/json")
             ),
             @ApiResponse(
@@ -194,12 +401,210 @@ public class UserActivityController {
             @RequestParam(defaultValue = "20")
             @Min(value = 1, message = "Page size must be at least 1")
             @Max(value = 100, message = "Page size cannot exceed 100")
-            int size) {
+            int size,
+            @Parameter(
+                    description = "Opaque cursor returned as nextCursor by the previous call. Send an empty value to start " +
+                            "cursor mode from the newest activity. Omit to use page/size pagination",
+                    example = "AAAAAGk5SEIAAAAAAAAAAAAAA-k"
+            )
+            @RequestParam(required = false)
+            String cursor,
+            @Parameter(
+                    description = "How totals are computed in page mode: exact, counter or none. " +
+                            "Defaults to app.pagination.default-totals (counter)",
+                    example = "counter"
+            )
+            @RequestParam(required = false)
+            String totals,
+            @Parameter(description = "Only activities created at or after this time", example = "2025-12-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Only activities created before this time", example = "2026-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Only these activity types (comma separated or repeated); all types when omitted",
+                    example = "PASSWORD_CHANGE")
+            @RequestParam(required = false) List<String> types,
+            @Parameter(hidden = true) @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest webRequest) {
 
-        log.info("\nTimeLine params : UsersID :{} & page: {} && Size: {}", userId, page, size);
-        TimelineResponse response = userActivityService.getTimeline(userId, page, size);
-        return ResponseEntity.ok(response);
+        log.debug("TimeLine params : UsersID :{} & page: {} && Size: {}", userId, page, size);
+        ActivityFilter filter = ActivityFilter.of(from, to, types);
+        // The URL (query string included) identifies the page; Accept picks its encoding
+        TimelineVersion version = userActivityService.getTimelineVersion(userId, page, size, cursor, totals);
+        if (webRequest.checkNotModified(version.eTag(userId, accept), version.lastModifiedMillis(System.currentTimeMillis()))) {
+            // 304 with ETag / Last-Modified already set, no activity rows read
+            return null;
+        }
+
+        TimelineResponse response = cursor != null
+                ? userActivityService.getTimelineByCursor(userId, cursor, size, filter, version)
+                : userActivityService.getTimeline(userId, page, size, totals, filter, version);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(response);
     }
-}
 
+    @GetMapping("/users/{userId}/activities/stats")
+    @Operation(
+            summary = "Get activity counts per type and hour or day",
+            description = "Counts the user's non-deleted activities per activity type in hourly or daily buckets of createdAt " +
+                    "over [from, to), from pre-computed rollups kept current by every create and delete. from is rounded " +
+                    "down and to rounded up to whole buckets; empty buckets are omitted. Optional types restricts the " +
+                    "counts to some activity types. Activities moved to the archive are still counted."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Counts retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ActivityStatsResponse.class),
+                            examples = @ExampleObject(
+                                    value = "{\"userId\": 123, \"granularity\": \"day\", \"from\": \"2025-12-01T00:00:00\", " +
+                                            "\"to\": \"2025-12-03T00:00:00\", \"totals\": {\"LOGIN\": 3, \"LOGOUT\": 1}, " +
+                                            "\"buckets\": [{\"bucketStart\": \"2025-12-01T00:00:00\", \"activityType\": \"LOGIN\", \"count\": 2}, " +
+                                            "{\"bucketStart\": \"2025-12-02T00:00:00\", \"activityType\": \"LOGIN\", \"count\": 1}, " +
+                                            "{\"bucketStart\": \"2025-12-02T00:00:00\", \"activityType\": \"LOGOUT\", \"count\": 1}]}"
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad Request - Missing or inverted range, unknown granularity or activity type, or too many buckets",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<ActivityStatsResponse> getActivityStats(
+            @Parameter(description = "The unique identifier of the user", required = true, example = "123")
+            @PathVariable Long userId,
+            @Parameter(description = "Range start (inclusive), required", example = "2025-12-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Range end (exclusive), required", example = "2025-12-08T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Bucket size: hour or day", example = "day")
+            @RequestParam(defaultValue = "day") String granularity,
+            @Parameter(description = "Only these activity types (comma separated or repeated); all types when omitted", example = "LOGIN")
+            @RequestParam(required = false) List<String> types) {
+
+        return ResponseEntity.ok(activityStatsService.getStats(userId, from, to, granularity, types));
+    }
+
+    @GetMapping(value = "/users/{userId}/activities/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream a user's activity changes",
+            description = "Server-Sent Events stream of the user's activities as they are committed: activity.created " +
+                    "(data: the activity as in the timeline) and activity.deleted (data: {\"id\": ...}). " +
+                    "On reconnect the browser sends Last-Event-ID and the events missed since then are replayed. " +
+                    "A reset event means they could not be (server restart or too far behind): reload the timeline. " +
+                    "Clients that read slower than events arrive are disconnected and resume the same way. " +
+                    "Only activities written through this instance are streamed."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Stream opened",
+                    content = @Content(mediaType = "text/event-stream", examples = @ExampleObject(
+                            value = "id: lq3x8k2a-42\nevent: activity.created\ndata: {\"id\":1001,\"activityType\":\"LOGIN\"," +
+                                    "\"description\":\"User logged in from web\",\"metadata\":null,\"createdAt\":\"2025-12-10T10:15:30Z\"}\n"))
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Service Unavailable - Streams are disabled or the subscriber limit is reached",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public SseEmitter streamActivities(
+            @Parameter(description = "The unique identifier of the user whose activities to stream", required = true, example = "123")
+            @PathVariable Long userId,
+            @Parameter(description = "Id of the last event received, sent automatically by EventSource on reconnect")
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+
+        return activityStreamBus.subscribe(userId, lastEventId);
+    }
+
+    @GetMapping("/users/{userId}/activities/export")
+    @Operation(
+            summary = "Export a user's activity history",
+            description = "Streams every non-deleted activity of the user, newest first, as NDJSON (one JSON object per line), " +
+                    "CSV with a header row or a CBOR sequence (one CBOR map per activity, createdAt as epoch milliseconds, " +
+                    "activityType as its code). Optional from/to (ISO-8601, from inclusive, to exclusive) restrict the export " +
+                    "to a created_at window and types to some activity types. Rows are read through a forward-only database cursor and written as they arrive, " +
+                    "so there is no page size limit."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Export streamed successfully",
+                    content = {
+                            @Content(mediaType = "application/x-ndjson", examples = @ExampleObject(
+                                    value = "{\"id\":1001,\"userId\":123,\"activityType\":\"LOGIN\",\"description\":\"User logged in from web\"," +
+                                            "\"metadata\":\"{\\\"ip\\\":\\\"192.168.1.10\\\"}\",\"createdAt\":\"2025-12-10T10:15:30Z\"}")),
+                            @Content(mediaType = "text/csv"),
+                            @Content(mediaType = "application/cbor-seq")
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad Request - Unknown format or activity type, or from not before to",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<StreamingResponseBody> exportUserActivities(
+            @Parameter(description = "The unique identifier of the user whose history to export", required = true, example = "123")
+            @PathVariable Long userId,
+            @Parameter(description = "Output format: ndjson, csv or cbor", example = "ndjson")
+            @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Only activities created at or after this time", example = "2025-12-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Only activities created before this time", example = "2026-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Only these activity types (comma separated or repeated); all types when omitted", example = "LOGIN")
+            @RequestParam(required = false) List<String> types) {
+
+        return export(userId, from, to, types, ExportFormat.from(format), "user-" + userId + "-activities");
+    }
 
+    @GetMapping("/activities/export")
+    @Operation(
+            summary = "Export all activities in a time window",
+            description = "Streams every non-deleted activity of all users created in [from, to), newest first, as NDJSON, CSV or CBOR. " +
+                    "Both from and to are required; optional types restricts the export to some activity types."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully",
+                    content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv"),
+                            @Content(mediaType = "application/cbor-seq")}),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad Request - Unknown format or activity type, missing window bounds or from not before to",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<StreamingResponseBody> exportActivities(
+            @Parameter(description = "Output format: ndjson, csv or cbor", example = "csv")
+            @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Window start (inclusive), required", example = "2025-12-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Window end (exclusive), required", example = "2025-12-02T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Only these activity types (comma separated or repeated); all types when omitted", example = "LOGIN")
+            @RequestParam(required = false) List<String> types) {
+
+        return export(null, from, to, types, ExportFormat.from(format), "activities");
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(Long userId, LocalDateTime from, LocalDateTime to,
+                                                         List<String> types, ExportFormat format, String fileName) {
+        // Validate up front: once streaming starts the status line is already sent
+        activityExportService.validateWindow(userId, from, to);
+        ActivityFilter filter = ActivityFilter.of(from, to, types);
+        StreamingResponseBody body = out -> activityExportService.export(userId, filter, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(fileName + "." + format.getFileExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,84 @@
+package com.useractivity.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.useractivity.event.ActivitiesCreatedEvent;
+import com.useractivity.event.ActivitiesDeletedEvent;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Read-your-writes over a lagging replica: for a configurable window after a user's write commits on this
+ * instance, read-only transactions reading that user's activities stay on the primary. The window should exceed
+ * the replica lag, which also keeps replica reads from caching a timeline that misses the write.
+ */
+@Component
+public class ReadYourWritesGuard {
+
+    private static final Object PRIMARY_REQUIRED = new Object();
+
+    @Value("${app.datasource.replica.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.datasource.replica.read-your-writes-seconds:5}")
+    private long readYourWritesSeconds;
+
+    @Value("${app.datasource.replica.max-tracked-users:100000}")
+    private long maxTrackedUsers;
+
+    private Cache<Long, Boolean> recentWriters;
+
+    @PostConstruct
+    void init() {
+        recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxTrackedUsers)
+                .expireAfterWrite(Duration.ofSeconds(readYourWritesSeconds))
+                .build();
+    }
+
+    /**
+     * Call at the start of a read-only transaction, before its first query, with the user whose data it reads.
+     */
+    public void readingUser(Long userId) {
+        if (enabled && userId != null && recentWriters.getIfPresent(userId) != null) {
+            requirePrimary();
+        }
+    }
+
+    static boolean isPrimaryRequired() {
+        return TransactionSynchronizationManager.hasResource(PRIMARY_REQUIRED);
+    }
+
+    private static void requirePrimary() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || isPrimaryRequired()) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(PRIMARY_REQUIRED, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PRIMARY_REQUIRED);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCreated(ActivitiesCreatedEvent event) {
+        if (enabled) {
+            event.getActivities().forEach(activity -> recentWriters.put(activity.getUserId(), Boolean.TRUE));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeleted(ActivitiesDeletedEvent event) {
+        if (enabled) {
+            event.getActivities().forEach(activity -> recentWriters.put(activity.getUserId(), Boolean.TRUE));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.useractivity.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections of read-only transactions to the replica pool and everything else to the primary. The lookup
+ * happens when a physical connection is needed, so it must sit behind a LazyConnectionDataSourceProxy: the
+ * transaction's read-only flag is only known after the transaction manager has started it.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ReadYourWritesGuard.isPrimaryRequired()
+                ? Target.REPLICA
+                : Target.PRIMARY;
+    }
+}
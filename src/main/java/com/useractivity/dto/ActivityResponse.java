@@ -1,8 +1,8 @@
 package com.useractivity.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.useractivity.enums.ActivityType;
 import io.swagger.v3.oas.annotations.media.Schema;
-import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,14 +12,13 @@ import java.time.LocalDateTime;
 @Data
 @Builder
 @NoArgsConstructor
-@AllArgsConstructor
 @Schema(description = "Response DTO containing activity information")
 public class ActivityResponse {
 
     @Schema(description = "Unique identifier of the activity", example = "1001")
     private Long id;
 
-    @Schema(description = "Type of activity", example = "LOGIN")
+    @Schema(description = "Type of activity; UNKNOWN for a type added by a newer version", example = "LOGIN")
     private String activityType;
 
     @Schema(description = "Description of the activity", example = "User logged in from web")
@@ -34,4 +33,12 @@ public class ActivityResponse {
             example = "2025-12-10T10:15:30Z")
     private LocalDateTime createdAt;
 
+    // Used by the builder and by the timeline queries, which select rows straight into this class
+    public ActivityResponse(Long id, String activityType, String description, String metadata, LocalDateTime createdAt) {
+        this.id = id;
+        this.activityType = ActivityType.responseName(activityType);
+        this.description = description;
+        this.metadata = metadata;
+        this.createdAt = createdAt;
+    }
 }
@@ -0,0 +1,27 @@
+package com.useractivity.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Activities of one type created in one hour or day")
+public class ActivityStatsBucket {
+
+    @Schema(description = "Start of the hour or day", example = "2025-12-10T00:00:00")
+    private LocalDateTime bucketStart;
+
+    @Schema(description = "Type of the activities", example = "LOGIN")
+    private String activityType;
+
+    @Schema(description = "Non-deleted activities of this type created in the bucket", example = "3")
+    private Long count;
+
+}
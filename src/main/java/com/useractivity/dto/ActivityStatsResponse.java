@@ -0,0 +1,38 @@
+package com.useractivity.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Activity counts of a user per type and hour or day")
+public class ActivityStatsResponse {
+
+    @Schema(description = "The user ID the counts belong to", example = "123")
+    private Long userId;
+
+    @Schema(description = "Bucket size: hour or day", example = "day")
+    private String granularity;
+
+    @Schema(description = "Start of the first bucket (inclusive), the requested from rounded down", example = "2025-12-01T00:00:00")
+    private LocalDateTime from;
+
+    @Schema(description = "End of the last bucket (exclusive), the requested to rounded up", example = "2025-12-08T00:00:00")
+    private LocalDateTime to;
+
+    @Schema(description = "Non-deleted activities per type over the whole range", example = "{\"LOGIN\": 12, \"LOGOUT\": 9}")
+    private Map<String, Long> totals;
+
+    @Schema(description = "Non-empty buckets, oldest first; buckets without activities are omitted")
+    private List<ActivityStatsBucket> buckets;
+
+}
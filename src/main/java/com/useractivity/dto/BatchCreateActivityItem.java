@@ -0,0 +1,28 @@
+package com.useractivity.dto;
+
+import com.useractivity.enums.ActivityType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@Schema(description = "One activity of a batch create request, carrying the user it belongs to")
+public class BatchCreateActivityItem extends CreateActivityRequest {
+
+    @NotNull(message = "userId is required")
+    @Schema(description = "The unique identifier of the user performing the activity",
+            requiredMode = Schema.RequiredMode.REQUIRED, example = "123")
+    private Long userId;
+
+    public BatchCreateActivityItem(Long userId, ActivityType activityType, String description, String metadata) {
+        super(activityType, description, metadata);
+        this.userId = userId;
+    }
+
+}
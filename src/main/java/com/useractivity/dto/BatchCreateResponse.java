@@ -0,0 +1,30 @@
+package com.useractivity.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Response DTO for a batch create request with one result per submitted item")
+public class BatchCreateResponse {
+
+    @Schema(description = "Number of items received", example = "3")
+    private Integer received;
+
+    @Schema(description = "Number of items stored", example = "2")
+    private Integer created;
+
+    @Schema(description = "Number of items rejected by validation", example = "1")
+    private Integer rejected;
+
+    @Schema(description = "Per-item results in request order")
+    private List<BatchItemResult> results;
+
+}
@@ -0,0 +1,26 @@
+package com.useractivity.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of a single activity id in a batch delete request")
+public class BatchDeleteItemResult {
+
+    public static final String DELETED = "DELETED";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String ALREADY_DELETED = "ALREADY_DELETED";
+
+    @Schema(description = "The activity id as submitted", example = "1001")
+    private Long activityId;
+
+    @Schema(description = "Item outcome", example = "DELETED", allowableValues = {DELETED, NOT_FOUND, ALREADY_DELETED})
+    private String status;
+
+}
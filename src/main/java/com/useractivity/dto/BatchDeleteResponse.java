@@ -0,0 +1,27 @@
+package com.useractivity.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Response DTO for a batch delete request with one result per distinct submitted id")
+public class BatchDeleteResponse {
+
+    @Schema(description = "Number of distinct activity ids received", example = "3")
+    private Integer received;
+
+    @Schema(description = "Number of activities soft deleted by this request", example = "2")
+    private Integer deleted;
+
+    @Schema(description = "Per-id results in request order")
+    private List<BatchDeleteItemResult> results;
+
+}
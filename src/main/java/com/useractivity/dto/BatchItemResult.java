@@ -0,0 +1,35 @@
+package com.useractivity.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Outcome of a single item in a batch request")
+public class BatchItemResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+
+    @Schema(description = "Position of the item in the request array (0-indexed)", example = "0")
+    private Integer index;
+
+    @Schema(description = "Item outcome", example = "CREATED", allowableValues = {CREATED, REJECTED})
+    private String status;
+
+    @Schema(description = "The stored activity, present when the item was created")
+    private ActivityResponse activity;
+
+    @Schema(description = "Validation errors, present when the item was rejected")
+    private List<ErrorResponse.FieldError> errors;
+
+}
@@ -0,0 +1,31 @@
+package com.useractivity.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Response DTO for an activity accepted for asynchronous ingestion")
+public class IngestionAcceptedResponse {
+
+    @Schema(description = "Correlation id of the accepted activity; echoes X-Correlation-Id when the client sent one",
+            example = "8f14e45f-ceea-467f-a0e6-5b1d8e3a0c11")
+    private String correlationId;
+
+    @Schema(description = "Ingestion status", example = "ACCEPTED")
+    private String status;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'")
+    @Schema(description = "Timestamp the activity was accepted, stored as its createdAt (ISO-8601 format)",
+            example = "2025-12-10T10:15:30Z")
+    private LocalDateTime acceptedAt;
+
+}
@@ -1,5 +1,6 @@
 package com.useractivity.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -12,25 +13,34 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Schema(description = "Response DTO containing paginated timeline of user activities")
 public class TimelineResponse {
 
     @Schema(description = "The user ID for which the timeline is retrieved", example = "123")
     private Long userId;
 
-    @Schema(description = "Current page number (0-indexed)", example = "0")
+    @Schema(description = "Current page number (0-indexed); absent in cursor mode", example = "0")
     private Integer page;
 
     @Schema(description = "Number of items per page", example = "20")
     private Integer size;
 
-    @Schema(description = "Total number of activities (excluding soft-deleted)", example = "52")
+    @Schema(description = "Total number of activities (excluding soft-deleted); absent in cursor mode and with totals=none", example = "52")
     private Long totalElements;
 
-    @Schema(description = "Total number of pages", example = "3")
+    @Schema(description = "Total number of pages; absent in cursor mode and with totals=none", example = "3")
     private Integer totalPages;
 
+    @Schema(description = "Whether a following page exists; present when totals are omitted (totals=none)",
+            example = "true", nullable = true)
+    private Boolean hasNext;
+
     @Schema(description = "List of activities for the current page")
     private List<ActivityResponse> activities;
 
+    @Schema(description = "Opaque cursor for the next page in cursor mode; absent when there are no more activities",
+            example = "AAAAAGk5SEIAAAAAAAAAAAAAA-k", nullable = true)
+    private String nextCursor;
+
 }
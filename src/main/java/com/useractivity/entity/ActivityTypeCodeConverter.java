@@ -0,0 +1,23 @@
+package com.useractivity.entity;
+
+import com.useractivity.enums.ActivityType;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores activity type names as their one-byte {@link ActivityType} code (TINYINT), so rows and the type indexes
+ * carry a byte instead of the name. Entities, JPQL parameters and results keep using names.
+ */
+@Converter
+public class ActivityTypeCodeConverter implements AttributeConverter<String, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(String activityType) {
+        return activityType == null ? null : ActivityType.codeOf(activityType);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Byte code) {
+        return code == null ? null : ActivityType.nameOf(code);
+    }
+}
@@ -0,0 +1,47 @@
+package com.useractivity.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// Write-ahead log records already stored, committed with their activities so a replay after a crash skips them.
+// Rows are deleted once the log checkpoint has passed their records.
+@Entity
+@Table(name = "ingested_activities")
+@IdClass(IngestedActivity.Key.class)
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestedActivity {
+
+    @Id
+    @Column(name = "correlation_id", length = 255)
+    private String correlationId;
+
+    // When the activity was accepted, in microseconds: tells apart activities sent with the same correlation id
+    @Id
+    @Column(name = "accepted_at")
+    private LocalDateTime acceptedAt;
+
+    @Column(name = "activity_id", nullable = false)
+    private Long activityId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String correlationId;
+        private LocalDateTime acceptedAt;
+    }
+}
@@ -5,13 +5,19 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.CreationTimestamp;
-import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_activities")
+@Table(name = "user_activities", indexes = {
+        // Serves the timeline (equality on user_id/is_deleted, then the sort) without a filesort
+        @Index(name = "idx_user_timeline", columnList = "user_id, is_deleted, created_at DESC, id DESC"),
+        // Same for a timeline filtered to one activity type: reads only that type's rows, still in order
+        @Index(name = "idx_user_type_timeline", columnList = "user_id, activity_type, is_deleted, created_at DESC, id DESC"),
+        @Index(name = "idx_created_at", columnList = "created_at"),
+        // Lets the purge job find soft-deleted rows in id order without scanning live ones
+        @Index(name = "idx_deleted", columnList = "is_deleted, id")
+})
 
 @Data
 @Builder
@@ -19,13 +25,18 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class UserActivity {
     
+    // IDENTITY would force an INSERT per row to read back the key; a pooled sequence hands out blocks of ids
+    // so inserts can be JDBC-batched. MySQL has no sequences, Hibernate emulates it with user_activities_seq.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_activities_seq")
+    @SequenceGenerator(name = "user_activities_seq", sequenceName = "user_activities_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "user_id", nullable = false)
     private Long userId;
     
+    // TINYINT code, see ActivityType and the activity_types table
+    @Convert(converter = ActivityTypeCodeConverter.class)
     @Column(name = "activity_type", nullable = false)
     private String activityType;
     
@@ -35,11 +46,10 @@ public class UserActivity {
     @Column(name = "metadata", columnDefinition = "JSON")
     private String metadata;
     
-    @CreationTimestamp
+    // Set by onCreate unless the caller already captured when the activity happened (e.g. queued writes)
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
-    @UpdateTimestamp
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
     
@@ -47,5 +57,19 @@ public class UserActivity {
     @Builder.Default
     private Boolean isDeleted = false;
 
+    @PrePersist
+    void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        updatedAt = now;
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
 }
 
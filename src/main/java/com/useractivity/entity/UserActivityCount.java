@@ -0,0 +1,38 @@
+package com.useractivity.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Non-deleted activities per user, maintained in the same transaction as every create and soft delete
+@Entity
+@Table(name = "user_activity_counts")
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserActivityCount {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "active_count", nullable = false)
+    private Long activeCount;
+
+    // Bumped with every change to the user's activities; backs the timeline ETag
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+}
@@ -0,0 +1,60 @@
+package com.useractivity.entity;
+
+import com.useractivity.enums.StatsGranularity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// Non-deleted activities per user, type and hour/day bucket of created_at, maintained with every create and soft delete
+@Entity
+@Table(name = "user_activity_rollups")
+@IdClass(UserActivityRollup.Key.class)
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserActivityRollup {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", length = 8)
+    private StatsGranularity granularity;
+
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    // ActivityType code: JPA does not apply converters to @Id attributes
+    @Id
+    @Column(name = "activity_type")
+    private Byte activityType;
+
+    @Column(name = "activity_count", nullable = false)
+    private Long activityCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private StatsGranularity granularity;
+        private LocalDateTime bucketStart;
+        private Byte activityType;
+    }
+}
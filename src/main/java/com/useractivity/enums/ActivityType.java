@@ -1,11 +1,79 @@
 package com.useractivity.enums;
 
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
 public enum ActivityType {
-    LOGIN,
-    LOGOUT,
-    PASSWORD_CHANGE,
-    PROFILE_UPDATE
-}
+    LOGIN(1),
+    LOGOUT(2),
+    PASSWORD_CHANGE(3),
+    PROFILE_UPDATE(4);
+
+    /**
+     * Reported by the API for a type this version does not know: a code added by a newer version that shares the
+     * database (see {@link #nameOf}). Never accepted as input.
+     */
+    public static final String UNKNOWN = "UNKNOWN";
+
+    // Stored in the activity_type columns and listed in the activity_types table: never renumber or reuse a code
+    private final byte code;
 
+    ActivityType(int code) {
+        this.code = (byte) code;
+    }
 
+    public byte getCode() {
+        return code;
+    }
 
+    // For query parameters; request bodies are bound by Jackson
+    public static ActivityType from(String value) {
+        return Arrays.stream(values())
+                .filter(type -> type.name().equals(value.trim().toUpperCase(Locale.ROOT)))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(String.format("Invalid activityType. Allowed values: %s",
+                        Arrays.stream(values()).map(Enum::name).collect(Collectors.joining(", ")))));
+    }
+
+    /**
+     * Stored code of an activity type name. A name this version does not know is only expected back from
+     * {@link #nameOf}, i.e. the decimal code of a type added by a newer version, and maps to that code again.
+     */
+    public static byte codeOf(String name) {
+        for (ActivityType type : values()) {
+            if (type.name().equals(name)) {
+                return type.code;
+            }
+        }
+        try {
+            return Byte.parseByte(name);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Unknown activity type: " + name);
+        }
+    }
+
+    /**
+     * Name of a stored code. Codes added by a newer version (see activity_types) come back as their decimal value,
+     * so rows read by this version keep their code through updates, rollups and archive files; responses and
+     * exports show them as {@link #UNKNOWN} (see {@link #responseName}).
+     */
+    public static String nameOf(byte code) {
+        for (ActivityType type : values()) {
+            if (type.code == code) {
+                return type.name();
+            }
+        }
+        return Byte.toString(code);
+    }
+
+    // Name shown in responses and exports: the stored name of a known type, UNKNOWN for the code of a newer type
+    public static String responseName(String name) {
+        for (ActivityType type : values()) {
+            if (type.name().equals(name)) {
+                return name;
+            }
+        }
+        return UNKNOWN;
+    }
+}
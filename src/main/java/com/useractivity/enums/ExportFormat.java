@@ -0,0 +1,35 @@
+package com.useractivity.enums;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv"),
+    // RFC 8742 CBOR sequence: one CBOR map per activity, back to back
+    CBOR("application/cbor-seq", "cbor");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public static ExportFormat from(String value) {
+        return Arrays.stream(values())
+                .filter(format -> format.name().equals(value.trim().toUpperCase(Locale.ROOT)))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "format must be one of ndjson, csv or cbor. Provided: " + value));
+    }
+}
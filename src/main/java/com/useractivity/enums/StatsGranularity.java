@@ -0,0 +1,40 @@
+package com.useractivity.enums;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Locale;
+
+// Bucket size of user_activity_rollups and the stats endpoint
+public enum StatsGranularity {
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    StatsGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public LocalDateTime bucketOf(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    // Start of the first bucket at or after time
+    public LocalDateTime ceiling(LocalDateTime time) {
+        LocalDateTime start = bucketOf(time);
+        return start.equals(time) ? start : start.plus(1, unit);
+    }
+
+    public long bucketsBetween(LocalDateTime from, LocalDateTime to) {
+        return unit.between(from, to);
+    }
+
+    public static StatsGranularity from(String value) {
+        return Arrays.stream(values())
+                .filter(granularity -> granularity.name().equals(value.trim().toUpperCase(Locale.ROOT)))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "granularity must be one of hour or day. Provided: " + value));
+    }
+}
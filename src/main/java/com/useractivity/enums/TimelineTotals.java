@@ -0,0 +1,22 @@
+package com.useractivity.enums;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// How the offset timeline computes totalElements/totalPages
+public enum TimelineTotals {
+    // COUNT query over the user's rows on every request
+    EXACT,
+    // Read from user_activity_counts
+    COUNTER,
+    // Omitted; the response says whether another page exists instead
+    NONE;
+
+    public static TimelineTotals from(String value) {
+        return Arrays.stream(values())
+                .filter(totals -> totals.name().equals(value.trim().toUpperCase(Locale.ROOT)))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "totals must be one of exact, counter or none. Provided: " + value));
+    }
+}
@@ -0,0 +1,13 @@
+package com.useractivity.event;
+
+import lombok.Value;
+
+import java.util.Set;
+
+/**
+ * Published after an archived partition was dropped, with the users whose live activities and counts it changed.
+ */
+@Value
+public class ActivitiesArchivedEvent {
+    Set<Long> userIds;
+}
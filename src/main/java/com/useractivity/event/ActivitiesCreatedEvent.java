@@ -0,0 +1,14 @@
+package com.useractivity.event;
+
+import com.useractivity.entity.UserActivity;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Published inside the transaction that stored the activities, by every write path (single, batch and async).
+ */
+@Value
+public class ActivitiesCreatedEvent {
+    List<UserActivity> activities;
+}
@@ -0,0 +1,22 @@
+package com.useractivity.event;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published inside the transaction that soft deleted the activities.
+ */
+@Value
+public class ActivitiesDeletedEvent {
+    List<DeletedActivity> activities;
+
+    @Value
+    public static class DeletedActivity {
+        Long id;
+        Long userId;
+        String activityType;
+        LocalDateTime createdAt;
+    }
+}
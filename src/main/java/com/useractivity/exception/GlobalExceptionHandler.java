@@ -5,6 +5,7 @@ import com.useractivity.exception.AlreadyDeletedException;
 import com.useractivity.exception.ResourceNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -31,6 +32,10 @@ public class GlobalExceptionHandler {
 
     @Value("${app.exception.not.deserialize:Cannot deserialize}")
     private String notDeserialize;
+
+    @Value("${app.ingestion.async.retry-after-seconds:1}")
+    private String retryAfterSeconds;
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationExceptions(
             MethodArgumentNotValidException ex, WebRequest request) {
@@ -67,7 +72,10 @@ public class GlobalExceptionHandler {
         log.error("Type mismatch error: ", ex);
 
         String paramName = ex.getName();
-        String message = String.format("Invalid value for '%s'. Expected a numeric value.", paramName);
+        String expected = ex.getRequiredType() == LocalDateTime.class
+                ? "an ISO-8601 date-time (e.g. 2025-12-01T00:00:00)"
+                : "a numeric value";
+        String message = String.format("Invalid value for '%s'. Expected %s.", paramName, expected);
 
         ErrorResponse errorResponse = ErrorResponse.builder()
                 .timestamp(LocalDateTime.now())
@@ -153,6 +161,40 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
     }
 
+    @ExceptionHandler(IngestionQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleIngestionQueueFull(
+            IngestionQueueFullException ex, WebRequest request) {
+        log.warn("Ingestion rejected: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error("Too Many Requests")
+                .message(ex.getMessage())
+                .path(request.getDescription(false).replace("uri=", ""))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(StreamUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleStreamUnavailable(
+            StreamUnavailableException ex, WebRequest request) {
+        log.warn("Stream rejected: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error("Service Unavailable")
+                .message(ex.getMessage())
+                .path(request.getDescription(false).replace("uri=", ""))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(
             Exception ex, WebRequest request) {
@@ -0,0 +1,249 @@
+package com.useractivity.ingestion;
+
+import com.useractivity.entity.UserActivity;
+import com.useractivity.event.ActivitiesCreatedEvent;
+import com.useractivity.exception.IngestionQueueFullException;
+import com.useractivity.repository.UserActivityRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer for activities: callers enqueue into a bounded queue and return immediately, while a
+ * pool of writer threads drains it in micro-batches, flushing when a batch is full or the flush interval
+ * elapses. A full queue is reported to the caller instead of blocking the request thread.
+ * <p>
+ * Queued activities were already acknowledged, so a failed flush is retried with exponential backoff (the writer
+ * holds its batch meanwhile and a full queue pushes back on callers). Only after the last attempt is each activity
+ * written on its own, so a row the database rejects does not take the rest of its batch with it.
+ */
+@Component
+@ConditionalOnExpression("${app.ingestion.async.enabled:false} && !${app.ingestion.async.durable:false}")
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityIngestionPipeline implements ActivityIngestor, SmartLifecycle {
+
+    private final UserActivityRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.ingestion.async.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.ingestion.async.writer-threads:2}")
+    private int writerThreads;
+
+    @Value("${app.ingestion.async.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.ingestion.async.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${app.ingestion.async.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs;
+
+    @Value("${app.ingestion.async.max-flush-attempts:5}")
+    private int maxFlushAttempts;
+
+    @Value("${app.ingestion.async.retry-backoff-ms:100}")
+    private long retryBackoffMs;
+
+    private BlockingQueue<PendingActivity> queue;
+    private ExecutorService writers;
+    private volatile boolean running;
+
+    private Counter acceptedCounter;
+    private Counter rejectedCounter;
+    private Counter flushedCounter;
+    private Counter failedCounter;
+    private Counter retriedCounter;
+    private Timer flushTimer;
+
+    @PostConstruct
+    void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("useractivity.ingestion.queue.depth", queue, BlockingQueue::size)
+                .description("Activities accepted but not yet written")
+                .register(meterRegistry);
+        Gauge.builder("useractivity.ingestion.queue.capacity", queue, q -> queueCapacity)
+                .register(meterRegistry);
+        acceptedCounter = meterRegistry.counter("useractivity.ingestion.activities", "outcome", "accepted");
+        rejectedCounter = meterRegistry.counter("useractivity.ingestion.activities", "outcome", "rejected");
+        flushedCounter = meterRegistry.counter("useractivity.ingestion.activities", "outcome", "flushed");
+        failedCounter = meterRegistry.counter("useractivity.ingestion.activities", "outcome", "failed");
+        retriedCounter = meterRegistry.counter("useractivity.ingestion.flush.retries");
+        flushTimer = Timer.builder("useractivity.ingestion.flush")
+                .description("Time to write one micro-batch")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void submit(PendingActivity pending) {
+        if (!running) {
+            rejectedCounter.increment();
+            throw new IngestionQueueFullException("Async ingestion is shutting down, retry against another instance");
+        }
+        if (!queue.offer(pending)) {
+            rejectedCounter.increment();
+            throw new IngestionQueueFullException(
+                    String.format("Ingestion queue is full (capacity %d), retry later", queueCapacity));
+        }
+        acceptedCounter.increment();
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writers = Executors.newFixedThreadPool(writerThreads, new CustomizableThreadFactory("activity-writer-"));
+        for (int i = 0; i < writerThreads; i++) {
+            writers.submit(this::drainLoop);
+        }
+        log.info("Async ingestion started: capacity={}, writers={}, batchSize={}, flushIntervalMs={}",
+                queueCapacity, writerThreads, batchSize, flushIntervalMs);
+    }
+
+    @Override
+    public void stop() {
+        // Stop accepting, let the writers drain what is already queued, then wait for them
+        running = false;
+        writers.shutdown();
+        try {
+            if (!writers.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+                log.error("Async ingestion did not drain within {} ms, {} activities not written",
+                        shutdownTimeoutMs, queue.size());
+                writers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writers.shutdownNow();
+        }
+        log.info("Async ingestion stopped, {} activities left in queue", queue.size());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Starts before and stops after the web server, see LIFECYCLE_PHASE
+        return LIFECYCLE_PHASE;
+    }
+
+    private void drainLoop() {
+        List<PendingActivity> batch = new ArrayList<>(batchSize);
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingActivity first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Fill the batch until it is full or the flush interval since the first item has elapsed
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingActivity next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queue.drainTo(batch, batchSize - batch.size());
+                flush(batch);
+                return;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<PendingActivity> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long backoffMs = retryBackoffMs;
+        for (int attempt = 1; attempt <= maxFlushAttempts; attempt++) {
+            RuntimeException failure = write(batch);
+            if (failure == null) {
+                flushedCounter.increment(batch.size());
+                log.debug("Flushed {} activities", batch.size());
+                return;
+            }
+            if (attempt == maxFlushAttempts) {
+                log.warn("Failed to write {} queued activities after {} attempts, writing them one by one",
+                        batch.size(), attempt, failure);
+                break;
+            }
+            log.warn("Failed to write {} queued activities (attempt {} of {}), retrying in {} ms",
+                    batch.size(), attempt, maxFlushAttempts, backoffMs, failure);
+            retriedCounter.increment();
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                // Shutdown timed out: one last try for each activity below
+                Thread.currentThread().interrupt();
+                break;
+            }
+            backoffMs *= 2;
+        }
+        for (PendingActivity pending : batch) {
+            RuntimeException failure = write(List.of(pending));
+            if (failure == null) {
+                flushedCounter.increment();
+            } else {
+                failedCounter.increment();
+                log.error("Failed to write queued activity, correlation id: {}", pending.getCorrelationId(), failure);
+            }
+        }
+    }
+
+    private RuntimeException write(List<PendingActivity> batch) {
+        // A rolled back attempt leaves the ids it was given on the entities; clear them so the retry inserts again
+        List<UserActivity> activities = batch.stream().map(PendingActivity::getActivity).toList();
+        activities.forEach(activity -> activity.setId(null));
+        long started = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    eventPublisher.publishEvent(new ActivitiesCreatedEvent(repository.saveAll(activities))));
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        } finally {
+            flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+}
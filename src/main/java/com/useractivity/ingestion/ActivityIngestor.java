@@ -0,0 +1,19 @@
+package com.useractivity.ingestion;
+
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+
+/**
+ * Accepts activities for asynchronous writing. Implementations throw
+ * {@link com.useractivity.exception.IngestionQueueFullException} when they cannot take more work.
+ */
+public interface ActivityIngestor {
+
+    /**
+     * SmartLifecycle phase of the ingestors: below the web server's start/stop phase (graceful shutdown minus 1024),
+     * so they start before requests arrive and stop only once the server has stopped taking them, then drain
+     * before singletons such as the DataSource are destroyed.
+     */
+    int LIFECYCLE_PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048 - 1;
+
+    void submit(PendingActivity pending);
+}
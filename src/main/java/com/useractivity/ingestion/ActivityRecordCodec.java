@@ -0,0 +1,85 @@
+package com.useractivity.ingestion;
+
+import com.useractivity.entity.UserActivity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact binary form of a {@link PendingActivity} for the write-ahead log.
+ * Layout: version, userId, createdAt (epoch seconds + nanos, UTC), then length-prefixed UTF-8 strings for
+ * correlationId, activityType, description and metadata (length -1 for null).
+ */
+final class ActivityRecordCodec {
+
+    private static final byte VERSION = 1;
+
+    private ActivityRecordCodec() {
+    }
+
+    static byte[] encode(PendingActivity pending) {
+        UserActivity activity = pending.getActivity();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(activity.getUserId());
+            out.writeLong(activity.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(activity.getCreatedAt().getNano());
+            writeString(out, pending.getCorrelationId());
+            writeString(out, activity.getActivityType());
+            writeString(out, activity.getDescription());
+            writeString(out, activity.getMetadata());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static PendingActivity decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported WAL record version: " + version);
+            }
+            long userId = in.readLong();
+            LocalDateTime createdAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            String correlationId = readString(in);
+            UserActivity activity = UserActivity.builder()
+                    .userId(userId)
+                    .createdAt(createdAt)
+                    .activityType(readString(in))
+                    .description(readString(in))
+                    .metadata(readString(in))
+                    .isDeleted(false)
+                    .build();
+            return new PendingActivity(correlationId, activity);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,13 @@
+package com.useractivity.ingestion;
+
+import com.useractivity.entity.UserActivity;
+import lombok.Value;
+
+/**
+ * An accepted activity waiting to be written, tagged with the correlation id returned to the caller.
+ */
+@Value
+public class PendingActivity {
+    String correlationId;
+    UserActivity activity;
+}
@@ -0,0 +1,18 @@
+package com.useractivity.ingestion;
+
+import lombok.Value;
+
+/**
+ * A byte position in the write-ahead log: segment number plus offset within that segment.
+ */
+@Value
+public class WalPosition implements Comparable<WalPosition> {
+    long segmentId;
+    long offset;
+
+    @Override
+    public int compareTo(WalPosition other) {
+        int bySegment = Long.compare(segmentId, other.segmentId);
+        return bySegment != 0 ? bySegment : Long.compare(offset, other.offset);
+    }
+}
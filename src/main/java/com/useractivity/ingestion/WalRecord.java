@@ -0,0 +1,12 @@
+package com.useractivity.ingestion;
+
+import lombok.Value;
+
+/**
+ * One record read back from the write-ahead log and the position just past it.
+ */
+@Value
+public class WalRecord {
+    byte[] payload;
+    WalPosition end;
+}
@@ -0,0 +1,293 @@
+package com.useractivity.ingestion;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of opaque records stored in fixed-size, memory-mapped segment files.
+ * <p>
+ * Each record is framed as {@code [int length][int crc32][payload]}; a zero length marks the unused tail of a
+ * segment. Appends only copy into the mapped buffer, {@link #force()} makes everything appended so far durable,
+ * which lets callers group many appends behind one fsync. Consumers read from the {@link #getCheckpoint()
+ * checkpoint} and move it forward with {@link #checkpoint(WalPosition)} once records are safely stored elsewhere,
+ * which deletes fully consumed segments. On {@link #open(Path, int)} a torn record at the tail is discarded.
+ */
+@Slf4j
+public class WriteAheadLog implements Closeable {
+
+    static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    private FileChannel activeChannel;
+    private MappedByteBuffer activeBuffer;
+    private long activeSegmentId;
+    private volatile WalPosition endPosition;
+    private volatile WalPosition checkpoint;
+
+    private WriteAheadLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    public static WriteAheadLog open(Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER_BYTES) {
+            throw new IllegalArgumentException("Segment size must be larger than " + HEADER_BYTES + " bytes");
+        }
+        Files.createDirectories(directory);
+        WriteAheadLog wal = new WriteAheadLog(directory, segmentSize);
+        wal.recover();
+        return wal;
+    }
+
+    /**
+     * Copies the record into the log and returns the position just past it. Not durable until {@link #force()}.
+     */
+    public WalPosition append(byte[] payload) throws IOException {
+        if (payload.length == 0 || HEADER_BYTES + payload.length > segmentSize) {
+            throw new IllegalArgumentException("Record size must be between 1 and " + (segmentSize - HEADER_BYTES) +
+                    " bytes. Provided: " + payload.length);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        appendLock.lock();
+        try {
+            if (activeBuffer.position() + HEADER_BYTES + payload.length > segmentSize) {
+                roll();
+            }
+            activeBuffer.putInt(payload.length);
+            activeBuffer.putInt((int) crc.getValue());
+            activeBuffer.put(payload);
+            endPosition = new WalPosition(activeSegmentId, activeBuffer.position());
+            return endPosition;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the active segment to disk and returns the position up to which the log is now durable.
+     */
+    public WalPosition force() {
+        MappedByteBuffer buffer;
+        WalPosition position;
+        appendLock.lock();
+        try {
+            buffer = activeBuffer;
+            position = endPosition;
+        } finally {
+            appendLock.unlock();
+        }
+        // Earlier segments were forced when rolled; forcing outside the lock keeps appends flowing
+        buffer.force();
+        return position;
+    }
+
+    /**
+     * Reads up to {@code maxRecords} records starting at {@code from}, never past {@code upTo}.
+     */
+    public List<WalRecord> read(WalPosition from, WalPosition upTo, int maxRecords) throws IOException {
+        List<WalRecord> records = new ArrayList<>();
+        long segmentId = from.getSegmentId();
+        long offset = from.getOffset();
+        FileChannel channel = null;
+        try {
+            while (records.size() < maxRecords && new WalPosition(segmentId, offset).compareTo(upTo) < 0) {
+                if (channel == null) {
+                    channel = FileChannel.open(segmentPath(segmentId), StandardOpenOption.READ);
+                }
+                int length = 0;
+                int checksum = 0;
+                if (offset + HEADER_BYTES <= segmentSize) {
+                    ByteBuffer header = readFully(channel, offset, HEADER_BYTES);
+                    length = header.getInt();
+                    checksum = header.getInt();
+                }
+                if (length <= 0) {
+                    // Unused tail: the writer rolled over to the next segment here
+                    channel.close();
+                    channel = null;
+                    segmentId++;
+                    offset = 0;
+                    continue;
+                }
+                byte[] payload = readFully(channel, offset + HEADER_BYTES, length).array();
+                if (crc(payload) != checksum) {
+                    throw new IOException("Corrupt WAL record in segment " + segmentId + " at offset " + offset);
+                }
+                offset += HEADER_BYTES + length;
+                records.add(new WalRecord(payload, new WalPosition(segmentId, offset)));
+            }
+        } finally {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Records that everything before {@code position} has been consumed and deletes segments no longer needed.
+     */
+    public void checkpoint(WalPosition position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + Long.BYTES);
+        buffer.putLong(position.getSegmentId()).putLong(position.getOffset()).flip();
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = position;
+
+        for (long segmentId : listSegmentIds()) {
+            if (segmentId < position.getSegmentId()) {
+                Files.deleteIfExists(segmentPath(segmentId));
+            }
+        }
+    }
+
+    public WalPosition getCheckpoint() {
+        return checkpoint;
+    }
+
+    public WalPosition getEndPosition() {
+        return endPosition;
+    }
+
+    /**
+     * Segments still on disk, i.e. holding records that have not been checkpointed yet.
+     */
+    public long getSegmentCount() {
+        return endPosition.getSegmentId() - checkpoint.getSegmentId() + 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            activeBuffer.force();
+            activeChannel.close();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Long> segmentIds = listSegmentIds();
+        WalPosition saved = readCheckpoint();
+        if (saved == null) {
+            saved = new WalPosition(segmentIds.isEmpty() ? 0 : segmentIds.get(0), 0);
+        }
+        checkpoint = saved;
+
+        activeSegmentId = segmentIds.isEmpty() ? saved.getSegmentId() : segmentIds.get(segmentIds.size() - 1);
+        mapSegment(activeSegmentId);
+
+        // Find the last intact record of the newest segment; anything after it is a torn write
+        int tail = 0;
+        while (tail + HEADER_BYTES <= segmentSize) {
+            int length = activeBuffer.getInt(tail);
+            if (length <= 0 || tail + HEADER_BYTES + length > segmentSize) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            activeBuffer.get(tail + HEADER_BYTES, payload);
+            if (crc(payload) != activeBuffer.getInt(tail + Integer.BYTES)) {
+                log.warn("Discarding torn WAL record in segment {} at offset {}", activeSegmentId, tail);
+                break;
+            }
+            tail += HEADER_BYTES + length;
+        }
+        if (tail + HEADER_BYTES <= segmentSize && activeBuffer.getInt(tail) != 0) {
+            for (int i = tail; i < segmentSize; i++) {
+                activeBuffer.put(i, (byte) 0);
+            }
+        }
+        activeBuffer.position(tail);
+        endPosition = new WalPosition(activeSegmentId, tail);
+        if (checkpoint.compareTo(endPosition) > 0) {
+            checkpoint = endPosition;
+        }
+        log.info("Opened WAL at {}: checkpoint={}, end={}", directory, checkpoint, endPosition);
+    }
+
+    private void roll() throws IOException {
+        activeBuffer.force();
+        activeChannel.close();
+        mapSegment(activeSegmentId + 1);
+    }
+
+    private void mapSegment(long segmentId) throws IOException {
+        activeChannel = FileChannel.open(segmentPath(segmentId), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activeBuffer = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        activeSegmentId = segmentId;
+    }
+
+    private WalPosition readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        return new WalPosition(buffer.getLong(), buffer.getLong());
+    }
+
+    private List<Long> listSegmentIds() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long segmentId) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segmentId, SEGMENT_SUFFIX));
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of WAL segment at " + (position + buffer.position()));
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,438 @@
+package com.useractivity.ingestion;
+
+import com.useractivity.entity.IngestedActivity;
+import com.useractivity.entity.UserActivity;
+import com.useractivity.event.ActivitiesCreatedEvent;
+import com.useractivity.exception.IngestionQueueFullException;
+import com.useractivity.repository.IngestedActivityRepository;
+import com.useractivity.repository.UserActivityRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Durable variant of async ingestion. Each activity is appended to the {@link WriteAheadLog} and acknowledged
+ * once a group commit has forced it to disk, so an accepted activity survives a JVM crash. A replayer thread
+ * tails the durable part of the log, writes it to the database in batches and checkpoints what was stored;
+ * on startup it resumes from the last checkpoint, replaying anything not yet written.
+ * <p>
+ * Replay is idempotent: each record's correlation id and acceptance time are committed to ingested_activities
+ * with its activity, so a batch replayed again after a crash between the database commit and the checkpoint is
+ * skipped rather than stored twice. A batch that keeps failing is replayed record by record, and a record that still fails
+ * while the database is up is moved to a dead-letter log instead of blocking the checkpoint.
+ */
+@Component
+@ConditionalOnExpression("${app.ingestion.async.enabled:false} && ${app.ingestion.async.durable:false}")
+@RequiredArgsConstructor
+@Slf4j
+public class WriteAheadLogIngestor implements ActivityIngestor, SmartLifecycle {
+
+    static final String DEAD_LETTER_DIRECTORY = "dead-letter";
+
+    private final UserActivityRepository repository;
+    private final IngestedActivityRepository ingestedActivityRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.ingestion.wal.directory:data/wal}")
+    private String directory;
+
+    @Value("${app.ingestion.wal.segment-size-bytes:67108864}")
+    private int segmentSize;
+
+    @Value("${app.ingestion.wal.max-segments:16}")
+    private int maxSegments;
+
+    @Value("${app.ingestion.wal.group-commit-interval-ms:2}")
+    private long groupCommitIntervalMs;
+
+    @Value("${app.ingestion.wal.sync-timeout-ms:5000}")
+    private long syncTimeoutMs;
+
+    @Value("${app.ingestion.wal.replay-batch-size:500}")
+    private int replayBatchSize;
+
+    @Value("${app.ingestion.wal.replay-interval-ms:50}")
+    private long replayIntervalMs;
+
+    @Value("${app.ingestion.wal.max-replay-attempts:5}")
+    private int maxReplayAttempts;
+
+    @Value("${app.ingestion.async.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs;
+
+    private final ReentrantReadWriteLock appendGuard = new ReentrantReadWriteLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition appended = syncLock.newCondition();
+    private final Condition synced = syncLock.newCondition();
+
+    private volatile WriteAheadLog wal;
+    private WriteAheadLog deadLetters;
+    private volatile WalPosition durablePosition;
+    private volatile boolean running;
+    private Thread groupCommitThread;
+    private Thread replayThread;
+
+    private Counter acceptedCounter;
+    private Counter rejectedCounter;
+    private Counter replayedCounter;
+    private Counter deadLetteredCounter;
+    private Timer appendTimer;
+    private Timer replayTimer;
+
+    @PostConstruct
+    void init() {
+        // Registered before start(): the gauge reads 0 until the log is open
+        Gauge.builder("useractivity.ingestion.wal.segments", this,
+                        ingestor -> ingestor.wal == null ? 0 : ingestor.wal.getSegmentCount())
+                .description("WAL segments holding records not yet written to the database")
+                .register(meterRegistry);
+        acceptedCounter = meterRegistry.counter("useractivity.ingestion.activities", "outcome", "accepted");
+        rejectedCounter = meterRegistry.counter("useractivity.ingestion.activities", "outcome", "rejected");
+        replayedCounter = meterRegistry.counter("useractivity.ingestion.activities", "outcome", "flushed");
+        deadLetteredCounter = meterRegistry.counter("useractivity.ingestion.activities", "outcome", "dead_lettered");
+        appendTimer = Timer.builder("useractivity.ingestion.wal.append")
+                .description("Time from append to durable acknowledgement, including the group commit wait")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        replayTimer = Timer.builder("useractivity.ingestion.flush")
+                .description("Time to write one micro-batch")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void submit(PendingActivity pending) {
+        byte[] record = ActivityRecordCodec.encode(pending);
+        long started = System.nanoTime();
+        WalPosition position;
+        // Held across the running check and the append, so stop() cannot close the log under an append
+        appendGuard.readLock().lock();
+        try {
+            if (!running || wal == null) {
+                rejectedCounter.increment();
+                throw new IngestionQueueFullException("Async ingestion is not running, retry later or against another instance");
+            }
+            if (wal.getSegmentCount() > maxSegments) {
+                rejectedCounter.increment();
+                throw new IngestionQueueFullException(
+                        String.format("Write-ahead log holds %d unreplayed segments, retry later", wal.getSegmentCount()));
+            }
+            position = wal.append(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append activity to the write-ahead log", e);
+        } finally {
+            appendGuard.readLock().unlock();
+        }
+        awaitDurable(position);
+        appendTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        acceptedCounter.increment();
+    }
+
+    @Override
+    public void start() {
+        try {
+            wal = WriteAheadLog.open(Path.of(directory), segmentSize);
+            deadLetters = WriteAheadLog.open(Path.of(directory, DEAD_LETTER_DIRECTORY), segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open write-ahead log in " + directory, e);
+        }
+        durablePosition = wal.getEndPosition();
+
+        running = true;
+        groupCommitThread = new Thread(this::groupCommitLoop, "wal-group-commit");
+        groupCommitThread.setDaemon(true);
+        groupCommitThread.start();
+        replayThread = new Thread(this::replayLoop, "wal-replayer");
+        replayThread.setDaemon(true);
+        replayThread.start();
+        log.info("Durable async ingestion started: directory={}, checkpoint={}, end={}",
+                directory, wal.getCheckpoint(), durablePosition);
+    }
+
+    @Override
+    public void stop() {
+        // Waits for appends already past the running check; later submits are rejected. The group commit below
+        // then makes every accepted record durable before the log is closed.
+        appendGuard.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            appendGuard.writeLock().unlock();
+        }
+        signal(appended);
+        try {
+            groupCommitThread.join(shutdownTimeoutMs);
+            // The replayer drains everything durable before exiting; whatever is left is replayed on next start
+            replayThread.join(shutdownTimeoutMs);
+            if (replayThread.isAlive()) {
+                log.warn("WAL replay did not finish within {} ms, remaining records will be replayed on restart",
+                        shutdownTimeoutMs);
+                replayThread.interrupt();
+            }
+            wal.close();
+            deadLetters.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Failed to close write-ahead log", e);
+        }
+        log.info("Durable async ingestion stopped: checkpoint={}, end={}", wal.getCheckpoint(), wal.getEndPosition());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Starts before and stops after the web server, see LIFECYCLE_PHASE
+        return LIFECYCLE_PHASE;
+    }
+
+    private void awaitDurable(WalPosition position) {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(syncTimeoutMs);
+        syncLock.lock();
+        try {
+            appended.signal();
+            while (durablePosition.compareTo(position) < 0) {
+                if (remainingNanos <= 0) {
+                    throw new IllegalStateException("Timed out waiting for the write-ahead log to sync");
+                }
+                remainingNanos = synced.awaitNanos(remainingNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the write-ahead log to sync", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void groupCommitLoop() {
+        while (true) {
+            syncLock.lock();
+            try {
+                while (running && wal.getEndPosition().compareTo(durablePosition) <= 0) {
+                    appended.await(100, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                syncLock.unlock();
+            }
+            try {
+                // Let concurrent appends pile up so one fsync acknowledges all of them
+                if (running && groupCommitIntervalMs > 0) {
+                    Thread.sleep(groupCommitIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            WalPosition forced = wal.force();
+            syncLock.lock();
+            try {
+                durablePosition = forced;
+                synced.signalAll();
+            } finally {
+                syncLock.unlock();
+            }
+            if (!running && wal.getEndPosition().compareTo(durablePosition) <= 0) {
+                return;
+            }
+        }
+    }
+
+    private void replayLoop() {
+        int attempts = 0;
+        // After a batch keeps failing, records up to here are replayed one at a time to find the ones at fault
+        WalPosition isolateUntil = null;
+        while (!Thread.currentThread().isInterrupted()) {
+            WalPosition from = wal.getCheckpoint();
+            WalPosition upTo = durablePosition;
+            try {
+                if (from.compareTo(upTo) >= 0) {
+                    if (!running && !groupCommitThread.isAlive()) {
+                        return;
+                    }
+                    Thread.sleep(replayIntervalMs);
+                    continue;
+                }
+                boolean isolating = isolateUntil != null && from.compareTo(isolateUntil) < 0;
+                List<WalRecord> records = wal.read(from, upTo, isolating ? 1 : replayBatchSize);
+                List<IngestedActivity.Key> replayed = List.of();
+                try {
+                    replayed = replay(records);
+                } catch (IOException | RuntimeException e) {
+                    if (++attempts < maxReplayAttempts) {
+                        throw e;
+                    }
+                    if (!isolating) {
+                        isolateUntil = records.get(records.size() - 1).getEnd();
+                        attempts = 0;
+                        log.warn("WAL replay from {} failed {} times, replaying its {} records one by one",
+                                from, maxReplayAttempts, records.size(), e);
+                        continue;
+                    }
+                    if (!databaseAvailable()) {
+                        // An outage, not this record: keep retrying it
+                        throw e;
+                    }
+                    deadLetter(records.get(0), e);
+                }
+                attempts = 0;
+                wal.checkpoint(records.get(records.size() - 1).getEnd());
+                forgetReplayed(replayed);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException e) {
+                // Keep the records and retry: they are durable, the database may just be unavailable
+                log.error("WAL replay from {} failed, retrying in {} ms", from, replayIntervalMs * 20, e);
+                try {
+                    Thread.sleep(replayIntervalMs * 20);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private boolean databaseAvailable() {
+        try {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Sets aside a record the database keeps rejecting while it accepts other work (a constraint violation, a
+     * record that no longer decodes), so it cannot hold back the checkpoint. Dead letters are kept in the same
+     * format in the dead-letter subdirectory of the log.
+     */
+    private void deadLetter(WalRecord record, Exception cause) throws IOException {
+        deadLetters.append(record.getPayload());
+        deadLetters.force();
+        deadLetteredCounter.increment();
+        String correlationId;
+        try {
+            correlationId = ActivityRecordCodec.decode(record.getPayload()).getCorrelationId();
+        } catch (IOException e) {
+            correlationId = "(undecodable)";
+        }
+        log.error("WAL record ending at {} failed {} times while the database is up, moved to the dead-letter " +
+                "log, correlation id: {}", record.getEnd(), maxReplayAttempts, correlationId, cause);
+    }
+
+    /**
+     * Writes the records' activities together with their keys in ingested_activities, skipping records whose key
+     * is already there (stored before a crash that came ahead of the checkpoint). Returns the keys of the batch.
+     */
+    private List<IngestedActivity.Key> replay(List<WalRecord> records) throws IOException {
+        Map<IngestedActivity.Key, UserActivity> pending = new LinkedHashMap<>();
+        for (WalRecord record : records) {
+            PendingActivity decoded = ActivityRecordCodec.decode(record.getPayload());
+            pending.putIfAbsent(keyOf(decoded), decoded.getActivity());
+        }
+        List<IngestedActivity.Key> keys = List.copyOf(pending.keySet());
+        long started = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<String> correlationIds = keys.stream().map(IngestedActivity.Key::getCorrelationId).collect(Collectors.toSet());
+            ingestedActivityRepository.findByCorrelationIds(correlationIds).forEach(stored ->
+                    pending.remove(new IngestedActivity.Key(stored.getCorrelationId(), stored.getAcceptedAt())));
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<UserActivity> saved = repository.saveAll(List.copyOf(pending.values()));
+            List<IngestedActivity.Key> savedKeys = List.copyOf(pending.keySet());
+            // JDBC batch: saving entities with assigned keys through JPA would SELECT each one first
+            jdbcTemplate.batchUpdate("INSERT INTO ingested_activities (correlation_id, accepted_at, activity_id) " +
+                    "VALUES (?, ?, ?)", new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    statement.setString(1, savedKeys.get(i).getCorrelationId());
+                    statement.setTimestamp(2, Timestamp.valueOf(savedKeys.get(i).getAcceptedAt()));
+                    statement.setLong(3, saved.get(i).getId());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return savedKeys.size();
+                }
+            });
+            eventPublisher.publishEvent(new ActivitiesCreatedEvent(saved));
+        });
+        replayTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        replayedCounter.increment(pending.size());
+        if (pending.size() < records.size()) {
+            log.info("WAL replay skipped {} records already stored", records.size() - pending.size());
+        }
+        return keys;
+    }
+
+    // Once the checkpoint has passed their records the keys are not needed any more; a crash before this only
+    // leaves a few rows behind
+    private void forgetReplayed(List<IngestedActivity.Key> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate("DELETE FROM ingested_activities WHERE correlation_id = ? AND accepted_at = ?",
+                    keys, keys.size(), (statement, key) -> {
+                        statement.setString(1, key.getCorrelationId());
+                        statement.setTimestamp(2, Timestamp.valueOf(key.getAcceptedAt()));
+                    });
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete {} replayed WAL keys from ingested_activities", keys.size(), e);
+        }
+    }
+
+    private static IngestedActivity.Key keyOf(PendingActivity pending) {
+        // Microseconds, the precision of accepted_at
+        return new IngestedActivity.Key(pending.getCorrelationId(),
+                pending.getActivity().getCreatedAt().truncatedTo(ChronoUnit.MICROS));
+    }
+
+    private void signal(Condition condition) {
+        syncLock.lock();
+        try {
+            condition.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+}
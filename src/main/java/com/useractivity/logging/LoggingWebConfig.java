@@ -0,0 +1,18 @@
+package com.useractivity.logging;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class LoggingWebConfig implements WebMvcConfigurer {
+
+    private final SampledRequestLoggingInterceptor sampledRequestLoggingInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sampledRequestLoggingInterceptor).addPathPatterns("/api/**");
+    }
+}
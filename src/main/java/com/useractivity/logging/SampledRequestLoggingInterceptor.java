@@ -0,0 +1,82 @@
+package com.useractivity.logging;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Logs one INFO summary line for a sample of requests instead of a line for every request. The rate is chosen
+ * per controller method (app.logging.request-sampling.rates), falling back to the default rate. Fields are
+ * structured arguments: key=value in the plain layout, separate JSON fields with the json-logs profile.
+ */
+@Component
+@Slf4j
+public class SampledRequestLoggingInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = SampledRequestLoggingInterceptor.class.getName() + ".start";
+
+    @Value("${app.logging.request-sampling.default-rate:0.01}")
+    private double defaultRate;
+
+    @Value("${app.logging.request-sampling.rates:}")
+    private String rates;
+
+    private final Map<String, Double> ratesByEndpoint = new HashMap<>();
+
+    @PostConstruct
+    void init() {
+        for (String entry : rates.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(
+                        "app.logging.request-sampling.rates entries must be endpoint=rate. Provided: " + entry);
+            }
+            ratesByEndpoint.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!(handler instanceof HandlerMethod handlerMethod) || !log.isInfoEnabled()) {
+            return;
+        }
+        String endpoint = handlerMethod.getMethod().getName();
+        double rate = ratesByEndpoint.getOrDefault(endpoint, defaultRate);
+        if (rate <= 0 || ThreadLocalRandom.current().nextDouble() >= rate) {
+            return;
+        }
+        Long start = (Long) request.getAttribute(START_ATTRIBUTE);
+        long durationMs = start == null ? -1 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Sampled request {} {} {} {} {} {}",
+                kv("endpoint", endpoint),
+                kv("method", request.getMethod()),
+                kv("uri", request.getRequestURI()),
+                kv("status", response.getStatus()),
+                kv("durationMs", durationMs),
+                kv("sampleRate", rate));
+    }
+}
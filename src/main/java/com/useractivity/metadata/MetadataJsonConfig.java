@@ -0,0 +1,25 @@
+package com.useractivity.metadata;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.useractivity.dto.ActivityResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetadataJsonConfig {
+
+    // Stored metadata is always valid JSON (validated on write, JSON column type), so it can be embedded as is:
+    // no escaping on the way out and no second parse for clients
+    @Bean
+    @ConditionalOnProperty(name = "app.metadata.raw-json", havingValue = "true")
+    public Jackson2ObjectMapperBuilderCustomizer rawMetadataCustomizer() {
+        return builder -> builder.mixIn(ActivityResponse.class, RawMetadata.class);
+    }
+
+    interface RawMetadata {
+        @JsonRawValue
+        String getMetadata();
+    }
+}
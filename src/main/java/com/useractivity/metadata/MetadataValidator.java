@@ -0,0 +1,66 @@
+package com.useractivity.metadata;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Checks that activity metadata is a single well-formed JSON value within the configured length and nesting
+ * limits. The parser only steps over tokens: no tree is built and string and number values are never decoded.
+ */
+@Component
+public class MetadataValidator {
+
+    private final JsonFactory jsonFactory;
+
+    @Value("${app.metadata.max-length:16384}")
+    private int maxLength;
+
+    @Value("${app.metadata.max-depth:16}")
+    private int maxDepth;
+
+    public MetadataValidator(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public void validate(String json) {
+        // Characters, not UTF-8 bytes: checked before parsing without encoding the string
+        if (json.length() > maxLength) {
+            throw new IllegalArgumentException(
+                    String.format("metadata cannot exceed %d characters. Provided: %d", maxLength, json.length()));
+        }
+
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            int depth = 0;
+            JsonToken token = parser.nextToken();
+            while (token != null) {
+                if (token.isStructStart() && ++depth > maxDepth) {
+                    throw new IllegalArgumentException(
+                            String.format("metadata cannot be nested deeper than %d levels", maxDepth));
+                }
+                if (token.isStructEnd()) {
+                    depth--;
+                }
+                if (depth == 0) {
+                    break;
+                }
+                token = parser.nextToken();
+            }
+            // Nothing may follow the root value: MySQL's JSON column would reject it
+            if (token == null || parser.nextToken() != null) {
+                throw invalid();
+            }
+        } catch (IOException e) {
+            throw invalid();
+        }
+    }
+
+    private static IllegalArgumentException invalid() {
+        return new IllegalArgumentException("Invalid JSON format in metadata field");
+    }
+}
@@ -0,0 +1,65 @@
+package com.useractivity.repository;
+
+import com.useractivity.enums.ActivityType;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Optional restriction of timeline and export reads: created_at in {@code [from, to)} (either bound may be null)
+ * and activity type in {@code types} (empty for all types).
+ */
+@Value
+public class ActivityFilter {
+
+    public static final ActivityFilter NONE = new ActivityFilter(null, null, Set.of());
+
+    LocalDateTime from;
+    LocalDateTime to;
+    Set<String> types;
+
+    /**
+     * Validates request parameters; type names are case insensitive and may be repeated.
+     */
+    public static ActivityFilter of(LocalDateTime from, LocalDateTime to, Collection<String> types) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException(
+                    String.format("from must be before to. Provided: from=%s, to=%s", from, to));
+        }
+        Set<String> typeNames = new TreeSet<>();
+        if (types != null) {
+            types.forEach(type -> typeNames.add(ActivityType.from(type).name()));
+        }
+        return from == null && to == null && typeNames.isEmpty()
+                ? NONE
+                : new ActivityFilter(from, to, Collections.unmodifiableSet(typeNames));
+    }
+
+    public boolean isEmpty() {
+        return from == null && to == null && types.isEmpty();
+    }
+
+    /**
+     * This filter narrowed to {@code [windowFrom, windowTo)}, null bounds leaving the filter's own.
+     */
+    public ActivityFilter within(LocalDateTime windowFrom, LocalDateTime windowTo) {
+        LocalDateTime lower = from == null || (windowFrom != null && windowFrom.isAfter(from)) ? windowFrom : from;
+        LocalDateTime upper = to == null || (windowTo != null && windowTo.isBefore(to)) ? windowTo : to;
+        return new ActivityFilter(lower, upper, types);
+    }
+
+    // True when no row can match, e.g. a window entirely outside the requested range
+    public boolean isEmptyRange() {
+        return from != null && to != null && !from.isBefore(to);
+    }
+
+    public boolean matches(String activityType, LocalDateTime createdAt) {
+        return (from == null || !createdAt.isBefore(from))
+                && (to == null || createdAt.isBefore(to))
+                && (types.isEmpty() || types.contains(activityType));
+    }
+}
@@ -0,0 +1,16 @@
+package com.useractivity.repository;
+
+import com.useractivity.entity.IngestedActivity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface IngestedActivityRepository extends JpaRepository<IngestedActivity, IngestedActivity.Key> {
+
+    @Query("SELECT i FROM IngestedActivity i WHERE i.correlationId IN :correlationIds")
+    List<IngestedActivity> findByCorrelationIds(Collection<String> correlationIds);
+}
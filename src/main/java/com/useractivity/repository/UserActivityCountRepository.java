@@ -0,0 +1,26 @@
+package com.useractivity.repository;
+
+import com.useractivity.entity.UserActivityCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface UserActivityCountRepository extends JpaRepository<UserActivityCount, Long> {
+    // Single-statement upsert: the row lock it takes serialises concurrent writers of the same user. updated_at comes
+    // from the application clock like every other timestamp, not from the database session's time zone
+    @Modifying
+    @Query(value = "INSERT INTO user_activity_counts (user_id, active_count, version, updated_at) " +
+            "VALUES (:userId, :delta, 1, :now) " +
+            "ON DUPLICATE KEY UPDATE active_count = active_count + :delta, version = version + 1, " +
+            "updated_at = :now",
+            nativeQuery = true)
+    int addToActiveCount(Long userId, long delta, LocalDateTime now);
+
+    @Query("SELECT c.activeCount FROM UserActivityCount c WHERE c.userId = :userId")
+    Optional<Long> findActiveCount(Long userId);
+}
@@ -1,16 +1,80 @@
 package com.useractivity.repository;
 
+import com.useractivity.dto.ActivityResponse;
 import com.useractivity.entity.UserActivity;
+import com.useractivity.event.ActivitiesDeletedEvent.DeletedActivity;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface UserActivityRepository extends JpaRepository<UserActivity, Long> {
-    @Query("SELECT ua FROM UserActivity ua WHERE ua.userId = :userId AND ua.isDeleted = false ORDER BY ua.createdAt DESC")
-    Page<UserActivity> findByUserIdAndNotDeletedOrderByCreatedAtDesc(Long userId, Pageable pageable);
-    
+public interface UserActivityRepository extends JpaRepository<UserActivity, Long>, UserActivityRepositoryCustom {
+    // Timeline rows are selected straight into the response DTO: Hibernate builds one ActivityResponse per row and
+    // never instantiates, snapshots or tracks a UserActivity for it, so reads skip the persistence context entirely
+    String TIMELINE_ROW = "new com.useractivity.dto.ActivityResponse(" +
+            "ua.id, ua.activityType, ua.description, ua.metadata, ua.createdAt)";
+
+    // Timeline queries spell out the full idx_user_timeline column order (user_id, is_deleted, created_at DESC, id DESC)
+    // in ORDER BY. The leading columns are fixed by the WHERE clause so the result order is unchanged, but planners
+    // that only match index prefixes (H2) can then skip the sort as MySQL does. Keep in sync with the index.
+    @Query(value = "SELECT " + TIMELINE_ROW + " FROM UserActivity ua WHERE ua.userId = :userId AND ua.isDeleted = false " +
+            "ORDER BY ua.userId, ua.isDeleted, ua.createdAt DESC, ua.id DESC",
+            countQuery = "SELECT COUNT(ua) FROM UserActivity ua WHERE ua.userId = :userId AND ua.isDeleted = false")
+    Page<ActivityResponse> findByUserIdAndNotDeletedOrderByCreatedAtDesc(Long userId, Pageable pageable);
+
+    // Slice return type fetches one extra row to answer hasNext instead of running the COUNT query
+    @Query("SELECT " + TIMELINE_ROW + " FROM UserActivity ua WHERE ua.userId = :userId AND ua.isDeleted = false " +
+            "ORDER BY ua.userId, ua.isDeleted, ua.createdAt DESC, ua.id DESC")
+    Slice<ActivityResponse> findTimelineSlice(Long userId, Pageable pageable);
+
+    // Keyset pagination: List return type skips the COUNT query, callers pass PageRequest.of(0, limit)
+    @Query("SELECT " + TIMELINE_ROW + " FROM UserActivity ua WHERE ua.userId = :userId AND ua.isDeleted = false " +
+            "ORDER BY ua.userId, ua.isDeleted, ua.createdAt DESC, ua.id DESC")
+    List<ActivityResponse> findTimelineHead(Long userId, Pageable limit);
+
+    @Query("SELECT " + TIMELINE_ROW + " FROM UserActivity ua WHERE ua.userId = :userId AND ua.isDeleted = false " +
+            "AND (ua.createdAt < :createdAt OR (ua.createdAt = :createdAt AND ua.id < :id)) " +
+            "ORDER BY ua.userId, ua.isDeleted, ua.createdAt DESC, ua.id DESC")
+    List<ActivityResponse> findTimelineAfter(Long userId, LocalDateTime createdAt, Long id, Pageable limit);
+
     boolean existsByIdAndIsDeletedFalse(Long id);
+
+    // Soft deletes are conditional UPDATEs: the affected-row count says whether a live row was flipped, so the
+    // row (description TEXT, metadata JSON) is never loaded and no dirty check runs. updated_at is set here
+    // because bulk updates bypass @PreUpdate, and the purge grace period is measured from it.
+    @Modifying
+    @Query("UPDATE UserActivity ua SET ua.isDeleted = true, ua.updatedAt = :now " +
+            "WHERE ua.id = :id AND ua.isDeleted = false")
+    int softDeleteIfLive(Long id, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE UserActivity ua SET ua.isDeleted = true, ua.updatedAt = :now " +
+            "WHERE ua.id IN :ids AND ua.isDeleted = false")
+    int softDeleteAllIfLive(Collection<Long> ids, LocalDateTime now);
+
+    // Only the columns the delete listeners need
+    @Query("SELECT new com.useractivity.event.ActivitiesDeletedEvent$DeletedActivity(" +
+            "ua.id, ua.userId, ua.activityType, ua.createdAt) FROM UserActivity ua WHERE ua.id IN :ids")
+    List<DeletedActivity> findDeletedActivities(Collection<Long> ids);
+
+    // Locks the live rows (SELECT ... FOR UPDATE) so a concurrent delete cannot flip them between this read and
+    // the bulk UPDATE, keeping the per-id outcomes and the published event exact
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.useractivity.event.ActivitiesDeletedEvent$DeletedActivity(" +
+            "ua.id, ua.userId, ua.activityType, ua.createdAt) FROM UserActivity ua " +
+            "WHERE ua.id IN :ids AND ua.isDeleted = false")
+    List<DeletedActivity> lockLiveActivities(Collection<Long> ids);
+
+    @Query("SELECT ua.id FROM UserActivity ua WHERE ua.id IN :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
 }
@@ -0,0 +1,44 @@
+package com.useractivity.repository;
+
+import com.useractivity.dto.ActivityResponse;
+import com.useractivity.entity.UserActivity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface UserActivityRepositoryCustom {
+
+    /**
+     * Forward-only stream of non-deleted activities, newest first, for one user ({@code userId} non-null) and/or
+     * the created_at window and types of {@code filter}. Rows are detached as they are produced so the
+     * persistence context stays empty; the caller must consume and close the stream inside a transaction.
+     */
+    Stream<UserActivity> streamActivities(Long userId, ActivityFilter filter, int fetchSize);
+
+    /**
+     * Up to {@code limit} timeline rows of a user matching {@code filter}, newest first, skipping {@code offset}
+     * rows after the keyset position ({@code createdAt}, {@code id}) or from the newest row when both are null.
+     */
+    List<ActivityResponse> findTimeline(Long userId, ActivityFilter filter, LocalDateTime createdAt, Long id,
+                                        int offset, int limit);
+
+    long countTimeline(Long userId, ActivityFilter filter);
+
+    /**
+     * Up to {@code limit} timeline rows of a user, newest first, starting after the keyset position
+     * ({@code createdAt}, {@code id}) or at the newest row when both are null. Reads one calendar month of
+     * created_at at a time, newest first, so each query touches a single monthly partition; after
+     * {@code monthWindows} months one last query covers everything older.
+     */
+    default List<ActivityResponse> findTimelineByMonth(Long userId, LocalDateTime createdAt, Long id, int limit,
+                                                       int monthWindows) {
+        return findTimelineByMonth(userId, ActivityFilter.NONE, createdAt, id, limit, monthWindows);
+    }
+
+    /**
+     * As above, restricted to {@code filter}; the month windows start at the filter's upper bound when that is older.
+     */
+    List<ActivityResponse> findTimelineByMonth(Long userId, ActivityFilter filter, LocalDateTime createdAt, Long id,
+                                               int limit, int monthWindows);
+}
@@ -0,0 +1,133 @@
+package com.useractivity.repository;
+
+import com.useractivity.dto.ActivityResponse;
+import com.useractivity.entity.UserActivity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Spring Data picks this up as the implementation of UserActivityRepositoryCustom (Impl suffix)
+public class UserActivityRepositoryImpl implements UserActivityRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<UserActivity> streamActivities(Long userId, ActivityFilter filter, int fetchSize) {
+        StringBuilder jpql = new StringBuilder("SELECT ua FROM UserActivity ua WHERE ua.isDeleted = false");
+        if (userId != null) {
+            jpql.append(" AND ua.userId = :userId");
+        }
+        appendFilter(jpql, filter);
+        // Per user, follow the timeline indexes as the timeline does; across users, walk idx_created_at
+        jpql.append(userId != null
+                ? timelineOrder(filter)
+                : " ORDER BY ua.createdAt DESC, ua.id DESC");
+
+        TypedQuery<UserActivity> query = entityManager.createQuery(jpql.toString(), UserActivity.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (userId != null) {
+            query.setParameter("userId", userId);
+        }
+        bindFilter(query, filter);
+        return query.getResultStream().peek(entityManager::detach);
+    }
+
+    @Override
+    public List<ActivityResponse> findTimeline(Long userId, ActivityFilter filter, LocalDateTime createdAt, Long id,
+                                               int offset, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT " + UserActivityRepository.TIMELINE_ROW +
+                " FROM UserActivity ua WHERE ua.userId = :userId AND ua.isDeleted = false");
+        if (createdAt != null) {
+            jpql.append(" AND (ua.createdAt < :createdAt OR (ua.createdAt = :createdAt AND ua.id < :id))");
+        }
+        appendFilter(jpql, filter);
+        jpql.append(timelineOrder(filter));
+
+        TypedQuery<ActivityResponse> query = entityManager.createQuery(jpql.toString(), ActivityResponse.class)
+                .setParameter("userId", userId)
+                .setFirstResult(offset)
+                .setMaxResults(limit);
+        if (createdAt != null) {
+            query.setParameter("createdAt", createdAt).setParameter("id", id);
+        }
+        bindFilter(query, filter);
+        return query.getResultList();
+    }
+
+    @Override
+    public long countTimeline(Long userId, ActivityFilter filter) {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT COUNT(ua) FROM UserActivity ua WHERE ua.userId = :userId AND ua.isDeleted = false");
+        appendFilter(jpql, filter);
+        TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class)
+                .setParameter("userId", userId);
+        bindFilter(query, filter);
+        return query.getSingleResult();
+    }
+
+    @Override
+    public List<ActivityResponse> findTimelineByMonth(Long userId, ActivityFilter filter, LocalDateTime createdAt,
+                                                      Long id, int limit, int monthWindows) {
+        List<ActivityResponse> rows = new ArrayList<>(limit);
+        LocalDateTime anchor = createdAt != null ? createdAt : LocalDateTime.now(ZoneOffset.UTC);
+        if (filter.getTo() != null && filter.getTo().isBefore(anchor)) {
+            // Months after the requested range hold nothing; start at the last month that can match
+            anchor = filter.getTo().minusNanos(1);
+        }
+        LocalDateTime upper = null;
+        LocalDateTime lower = anchor.toLocalDate().withDayOfMonth(1).atStartOfDay();
+        for (int window = 0; window <= monthWindows && rows.size() < limit; window++) {
+            // The last window is open ended: a user with no recent activity costs one more query, not one per month
+            ActivityFilter monthFilter = filter.within(window < monthWindows ? lower : null, upper);
+            if (monthFilter.isEmptyRange()) {
+                break;
+            }
+            rows.addAll(findTimeline(userId, monthFilter, createdAt, id, 0, limit - rows.size()));
+            upper = lower;
+            lower = lower.minusMonths(1);
+        }
+        return rows;
+    }
+
+    private static void appendFilter(StringBuilder jpql, ActivityFilter filter) {
+        if (filter.getFrom() != null) {
+            jpql.append(" AND ua.createdAt >= :from");
+        }
+        if (filter.getTo() != null) {
+            jpql.append(" AND ua.createdAt < :to");
+        }
+        if (!filter.getTypes().isEmpty()) {
+            jpql.append(" AND ua.activityType IN :types");
+        }
+    }
+
+    private static void bindFilter(TypedQuery<?> query, ActivityFilter filter) {
+        if (filter.getFrom() != null) {
+            query.setParameter("from", filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            query.setParameter("to", filter.getTo());
+        }
+        if (!filter.getTypes().isEmpty()) {
+            query.setParameter("types", filter.getTypes());
+        }
+    }
+
+    // Spelled out in index column order, see UserActivityRepository. With a single type the activity_type
+    // equality lets idx_user_type_timeline deliver rows in order; several types read one range of it per type
+    // and sort the matches, or filter idx_user_timeline, whichever the planner estimates cheaper.
+    private static String timelineOrder(ActivityFilter filter) {
+        return filter.getTypes().size() == 1
+                ? " ORDER BY ua.userId, ua.activityType, ua.isDeleted, ua.createdAt DESC, ua.id DESC"
+                : " ORDER BY ua.userId, ua.isDeleted, ua.createdAt DESC, ua.id DESC";
+    }
+}
@@ -0,0 +1,39 @@
+package com.useractivity.repository;
+
+import com.useractivity.entity.UserActivityRollup;
+import com.useractivity.enums.StatsGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UserActivityRollupRepository extends JpaRepository<UserActivityRollup, UserActivityRollup.Key> {
+
+    // Same single-statement upsert as user_activity_counts; callers apply deltas in primary key order
+    @Modifying
+    @Query(value = "INSERT INTO user_activity_rollups (user_id, granularity, bucket_start, activity_type, activity_count) " +
+            "VALUES (:userId, :granularity, :bucketStart, :activityType, :delta) " +
+            "ON DUPLICATE KEY UPDATE activity_count = activity_count + :delta",
+            nativeQuery = true)
+    int addToRollup(Long userId, String granularity, LocalDateTime bucketStart, byte activityType, long delta);
+
+    // Primary key range scan: (user_id, granularity, bucket_start, activity_type)
+    @Query("SELECT r FROM UserActivityRollup r " +
+            "WHERE r.userId = :userId AND r.granularity = :granularity " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to AND r.activityCount > 0 " +
+            "ORDER BY r.bucketStart, r.activityType")
+    List<UserActivityRollup> findBuckets(Long userId, StatsGranularity granularity,
+                                         LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT r FROM UserActivityRollup r " +
+            "WHERE r.userId = :userId AND r.granularity = :granularity " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to AND r.activityType IN :types AND r.activityCount > 0 " +
+            "ORDER BY r.bucketStart, r.activityType")
+    List<UserActivityRollup> findBuckets(Long userId, StatsGranularity granularity,
+                                         LocalDateTime from, LocalDateTime to, Collection<Byte> types);
+}
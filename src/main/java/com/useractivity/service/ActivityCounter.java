@@ -0,0 +1,59 @@
+package com.useractivity.service;
+
+import com.useractivity.entity.UserActivity;
+import com.useractivity.event.ActivitiesCreatedEvent;
+import com.useractivity.event.ActivitiesDeletedEvent;
+import com.useractivity.repository.UserActivityCountRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Keeps user_activity_counts in step with user_activities. Listeners run synchronously when the write path
+ * publishes its event, i.e. inside the same transaction, so a rolled back write never changes the count.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActivityCounter {
+
+    private final UserActivityCountRepository repository;
+
+    public long getActiveCount(Long userId) {
+        return repository.findActiveCount(userId).orElse(0L);
+    }
+
+    public TimelineVersion getTimelineVersion(Long userId) {
+        return repository.findById(userId)
+                .map(counts -> new TimelineVersion(counts.getVersion(), counts.getUpdatedAt()))
+                .orElse(TimelineVersion.NONE);
+    }
+
+    @EventListener
+    public void onCreated(ActivitiesCreatedEvent event) {
+        apply(countByUser(event.getActivities(), UserActivity::getUserId), 1);
+    }
+
+    @EventListener
+    public void onDeleted(ActivitiesDeletedEvent event) {
+        apply(countByUser(event.getActivities(), ActivitiesDeletedEvent.DeletedActivity::getUserId), -1);
+    }
+
+    private void apply(Map<Long, Long> countsByUser, int sign) {
+        // Ascending user order keeps row locks in a consistent order across concurrent batches
+        LocalDateTime now = LocalDateTime.now();
+        countsByUser.forEach((userId, count) -> repository.addToActiveCount(userId, sign * count, now));
+    }
+
+    private static <T> Map<Long, Long> countByUser(Iterable<T> activities, Function<T, Long> userId) {
+        Map<Long, Long> counts = new TreeMap<>();
+        for (T activity : activities) {
+            counts.merge(userId.apply(activity), 1L, Long::sum);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,176 @@
+package com.useractivity.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.useractivity.archive.ActivityArchiveStore;
+import com.useractivity.cbor.CborConfig;
+import com.useractivity.datasource.ReadYourWritesGuard;
+import com.useractivity.entity.UserActivity;
+import com.useractivity.enums.ActivityType;
+import com.useractivity.enums.ExportFormat;
+import com.useractivity.repository.ActivityFilter;
+import com.useractivity.repository.UserActivityRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes complete activity histories straight from a forward-only JDBC cursor, followed by any archived months
+ * from cold storage, to the response stream. Rows are serialised one at a time with Jackson's streaming
+ * generators and never collected, so memory stays constant whatever the number of rows.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityExportService {
+
+    // Same wire format as ActivityResponse.createdAt
+    private static final DateTimeFormatter CREATED_AT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
+
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("userId")
+            .addColumn("activityType")
+            .addColumn("description")
+            .addColumn("metadata")
+            .addColumn("createdAt")
+            .build()
+            .withHeader();
+
+    private final UserActivityRepository repository;
+    private final ObjectMapper objectMapper;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final ActivityArchiveStore archiveStore;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final CBORFactory cborFactory = new CBORFactory();
+
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${app.export.flush-every-rows:1000}")
+    private int flushEveryRows;
+
+    @Value("${app.metadata.raw-json:false}")
+    private boolean rawMetadata;
+
+    /**
+     * Checks the request before the response is committed; errors here still map to a 400.
+     */
+    public void validateWindow(Long userId, LocalDateTime from, LocalDateTime to) {
+        if (userId == null && (from == null || to == null)) {
+            throw new IllegalArgumentException("Exports across users require both from and to");
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException(
+                    String.format("from must be before to. Provided: from=%s, to=%s", from, to));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long export(Long userId, ActivityFilter filter, ExportFormat format, OutputStream out) throws IOException {
+        readYourWritesGuard.readingUser(userId);
+        long started = System.currentTimeMillis();
+        long rows;
+        // Archived months are all older than what is still in the table, so appending them keeps newest-first order
+        try (Stream<UserActivity> activities = Stream.concat(
+                repository.streamActivities(userId, filter, fetchSize),
+                archiveStore.read(userId, filter))) {
+            rows = switch (format) {
+                case CSV -> writeCsv(activities.iterator(), out);
+                case CBOR -> writeCbor(activities.iterator(), out);
+                case NDJSON -> writeNdjson(activities.iterator(), out);
+            };
+        }
+        log.info("Exported {} activities as {} (userId={}, from={}, to={}, types={}) in {} ms", rows, format, userId,
+                filter.getFrom(), filter.getTo(), filter.getTypes(), System.currentTimeMillis() - started);
+        return rows;
+    }
+
+    private long writeNdjson(Iterator<UserActivity> activities, OutputStream out) throws IOException {
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            while (activities.hasNext()) {
+                UserActivity activity = activities.next();
+                generator.writeStartObject();
+                generator.writeNumberField("id", activity.getId());
+                generator.writeNumberField("userId", activity.getUserId());
+                generator.writeStringField("activityType", ActivityType.responseName(activity.getActivityType()));
+                generator.writeStringField("description", activity.getDescription());
+                // Same representation as the timeline (app.metadata.raw-json)
+                if (rawMetadata && activity.getMetadata() != null) {
+                    generator.writeFieldName("metadata");
+                    generator.writeRawValue(activity.getMetadata());
+                } else {
+                    generator.writeStringField("metadata", activity.getMetadata());
+                }
+                generator.writeStringField("createdAt", CREATED_AT_FORMAT.format(activity.getCreatedAt()));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                if (++rows % flushEveryRows == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private long writeCsv(Iterator<UserActivity> activities, OutputStream out) throws IOException {
+        long rows = 0;
+        try (JsonGenerator generator = csvMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.setSchema(CSV_SCHEMA);
+            while (activities.hasNext()) {
+                UserActivity activity = activities.next();
+                generator.writeStartArray();
+                generator.writeNumber(activity.getId());
+                generator.writeNumber(activity.getUserId());
+                generator.writeString(ActivityType.responseName(activity.getActivityType()));
+                generator.writeString(activity.getDescription());
+                generator.writeString(activity.getMetadata());
+                generator.writeString(CREATED_AT_FORMAT.format(activity.getCreatedAt()));
+                generator.writeEndArray();
+                if (++rows % flushEveryRows == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return rows;
+    }
+
+    // Same values as CBOR API responses (see CborConfig): epoch millis and activity type codes
+    private long writeCbor(Iterator<UserActivity> activities, OutputStream out) throws IOException {
+        long rows = 0;
+        try (JsonGenerator generator = cborFactory.createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            while (activities.hasNext()) {
+                UserActivity activity = activities.next();
+                generator.writeStartObject();
+                generator.writeNumberField("id", activity.getId());
+                generator.writeNumberField("userId", activity.getUserId());
+                generator.writeFieldName("activityType");
+                CborConfig.writeActivityType(activity.getActivityType(), generator);
+                generator.writeStringField("description", activity.getDescription());
+                generator.writeStringField("metadata", activity.getMetadata());
+                generator.writeNumberField("createdAt", CborConfig.epochMillis(activity.getCreatedAt()));
+                generator.writeEndObject();
+                if (++rows % flushEveryRows == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return rows;
+    }
+}
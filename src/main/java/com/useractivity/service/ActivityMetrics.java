@@ -0,0 +1,98 @@
+package com.useractivity.service;
+
+import com.useractivity.entity.UserActivity;
+import com.useractivity.enums.ActivityType;
+import com.useractivity.event.ActivitiesCreatedEvent;
+import com.useractivity.event.ActivitiesDeletedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Domain metrics for the activity hot paths. Meters are registered once and tagged only by bounded values
+ * (activity type, timeline mode), never by user or activity id. Request latency is covered by Spring's
+ * http.server.requests and spring.data.repository.invocations timers.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActivityMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<ActivityType, Counter> createdCounters = new EnumMap<>(ActivityType.class);
+    private final Map<ActivityType, Counter> deletedCounters = new EnumMap<>(ActivityType.class);
+    private DistributionSummary metadataBytes;
+    private DistributionSummary pageSizeOffset;
+    private DistributionSummary pageSizeCursor;
+
+    @PostConstruct
+    void init() {
+        for (ActivityType type : ActivityType.values()) {
+            createdCounters.put(type, Counter.builder("useractivity.activities.created")
+                    .description("Activities stored, by every write path")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+            deletedCounters.put(type, Counter.builder("useractivity.activities.deleted")
+                    .description("Activities soft deleted")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+        }
+        metadataBytes = DistributionSummary.builder("useractivity.activity.metadata.bytes")
+                .description("UTF-8 size of stored metadata; activities without metadata are not recorded")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        pageSizeOffset = pageSizeSummary("page");
+        pageSizeCursor = pageSizeSummary("cursor");
+    }
+
+    public void recordTimelineRequest(boolean cursorMode, int size) {
+        (cursorMode ? pageSizeCursor : pageSizeOffset).record(size);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCreated(ActivitiesCreatedEvent event) {
+        for (UserActivity activity : event.getActivities()) {
+            Counter counter = createdCounters.get(typeOf(activity.getActivityType()));
+            if (counter != null) {
+                counter.increment();
+            }
+            if (activity.getMetadata() != null) {
+                metadataBytes.record(activity.getMetadata().getBytes(StandardCharsets.UTF_8).length);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeleted(ActivitiesDeletedEvent event) {
+        for (ActivitiesDeletedEvent.DeletedActivity activity : event.getActivities()) {
+            Counter counter = deletedCounters.get(typeOf(activity.getActivityType()));
+            if (counter != null) {
+                counter.increment();
+            }
+        }
+    }
+
+    private DistributionSummary pageSizeSummary(String mode) {
+        return DistributionSummary.builder("useractivity.timeline.page.size")
+                .description("Requested timeline page size")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    // Rows written before the enum gained or lost a value are not counted rather than creating new tags
+    private static ActivityType typeOf(String name) {
+        try {
+            return name == null ? null : ActivityType.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.useractivity.service;
+
+import com.useractivity.entity.UserActivity;
+import com.useractivity.enums.ActivityType;
+import com.useractivity.enums.StatsGranularity;
+import com.useractivity.event.ActivitiesCreatedEvent;
+import com.useractivity.event.ActivitiesDeletedEvent;
+import com.useractivity.repository.UserActivityRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Keeps user_activity_rollups in step with user_activities, like {@link ActivityCounter}: in the writing
+ * transaction, one upsert per distinct (user, type, bucket) of the batch and granularity. Deletes take the
+ * activity's created_at bucket back down; archiving leaves the rollups alone, so stats still cover archived months.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActivityRollups {
+
+    private static final Comparator<Bucket> PRIMARY_KEY_ORDER = Comparator
+            .comparing(Bucket::getUserId)
+            .thenComparing(Bucket::getGranularity)
+            .thenComparing(Bucket::getStart)
+            .thenComparing(Bucket::getActivityTypeCode);
+
+    private final UserActivityRollupRepository repository;
+
+    @Value("${app.rollups.enabled:true}")
+    private boolean enabled;
+
+    @EventListener
+    public void onCreated(ActivitiesCreatedEvent event) {
+        if (enabled) {
+            apply(countByBucket(event.getActivities(), UserActivity::getUserId, UserActivity::getActivityType,
+                    UserActivity::getCreatedAt), 1);
+        }
+    }
+
+    @EventListener
+    public void onDeleted(ActivitiesDeletedEvent event) {
+        if (enabled) {
+            apply(countByBucket(event.getActivities(), ActivitiesDeletedEvent.DeletedActivity::getUserId,
+                    ActivitiesDeletedEvent.DeletedActivity::getActivityType,
+                    ActivitiesDeletedEvent.DeletedActivity::getCreatedAt), -1);
+        }
+    }
+
+    private void apply(Map<Bucket, Long> countsByBucket, int sign) {
+        // Primary key order keeps row locks in a consistent order across concurrent batches
+        countsByBucket.forEach((bucket, count) -> repository.addToRollup(bucket.getUserId(), bucket.getGranularity().name(),
+                bucket.getStart(), bucket.getActivityTypeCode(), sign * count));
+    }
+
+    private static <T> Map<Bucket, Long> countByBucket(Iterable<T> activities, Function<T, Long> userId,
+                                                       Function<T, String> activityType,
+                                                       Function<T, LocalDateTime> createdAt) {
+        Map<Bucket, Long> counts = new TreeMap<>(PRIMARY_KEY_ORDER);
+        for (T activity : activities) {
+            for (StatsGranularity granularity : StatsGranularity.values()) {
+                Bucket bucket = new Bucket(userId.apply(activity), granularity,
+                        granularity.bucketOf(createdAt.apply(activity)), ActivityType.codeOf(activityType.apply(activity)));
+                counts.merge(bucket, 1L, Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    @lombok.Value
+    private static class Bucket {
+        Long userId;
+        StatsGranularity granularity;
+        LocalDateTime start;
+        // Stored code, so the order matches the primary key
+        byte activityTypeCode;
+    }
+}
@@ -0,0 +1,89 @@
+package com.useractivity.service;
+
+import com.useractivity.datasource.ReadYourWritesGuard;
+import com.useractivity.dto.ActivityStatsBucket;
+import com.useractivity.dto.ActivityStatsResponse;
+import com.useractivity.entity.UserActivityRollup;
+import com.useractivity.enums.ActivityType;
+import com.useractivity.enums.StatsGranularity;
+import com.useractivity.repository.UserActivityRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Activity counts per type and hour or day, read from user_activity_rollups (see {@link ActivityRollups}) rather
+ * than from user_activities: a request touches at most one row per bucket and type.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityStatsService {
+
+    private final UserActivityRollupRepository repository;
+    private final ReadYourWritesGuard readYourWritesGuard;
+
+    @Value("${app.stats.max-buckets:2000}")
+    private long maxBuckets;
+
+    @Transactional(readOnly = true)
+    public ActivityStatsResponse getStats(Long userId, LocalDateTime from, LocalDateTime to, String granularity,
+                                          List<String> types) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Stats require both from and to");
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException(
+                    String.format("from must be before to. Provided: from=%s, to=%s", from, to));
+        }
+        StatsGranularity bucketSize = StatsGranularity.from(granularity);
+        LocalDateTime start = bucketSize.bucketOf(from);
+        LocalDateTime end = bucketSize.ceiling(to);
+        long buckets = bucketSize.bucketsBetween(start, end);
+        if (buckets > maxBuckets) {
+            throw new IllegalArgumentException(String.format(
+                    "The range covers %d %s buckets, at most %d are allowed; use a coarser granularity or a shorter range",
+                    buckets, granularity.trim().toLowerCase(Locale.ROOT), maxBuckets));
+        }
+        Set<Byte> typeCodes = new TreeSet<>();
+        if (types != null) {
+            types.forEach(type -> typeCodes.add(ActivityType.from(type).getCode()));
+        }
+
+        readYourWritesGuard.readingUser(userId);
+        List<ActivityStatsBucket> rows = (typeCodes.isEmpty()
+                ? repository.findBuckets(userId, bucketSize, start, end)
+                : repository.findBuckets(userId, bucketSize, start, end, typeCodes))
+                .stream()
+                .map(ActivityStatsService::toBucket)
+                .toList();
+        Map<String, Long> totals = new TreeMap<>();
+        rows.forEach(row -> totals.merge(row.getActivityType(), row.getCount(), Long::sum));
+        log.debug("Stats of user {}: {} rollup rows for {} {} buckets", userId, rows.size(), buckets, bucketSize);
+
+        return ActivityStatsResponse.builder()
+                .userId(userId)
+                .granularity(bucketSize.name().toLowerCase(Locale.ROOT))
+                .from(start)
+                .to(end)
+                .totals(totals)
+                .buckets(rows)
+                .build();
+    }
+
+    private static ActivityStatsBucket toBucket(UserActivityRollup rollup) {
+        return new ActivityStatsBucket(rollup.getBucketStart(),
+                ActivityType.responseName(ActivityType.nameOf(rollup.getActivityType())),
+                rollup.getActivityCount());
+    }
+}
@@ -0,0 +1,254 @@
+package com.useractivity.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.useractivity.dto.ActivityResponse;
+import com.useractivity.entity.UserActivity;
+import com.useractivity.event.ActivitiesArchivedEvent;
+import com.useractivity.event.ActivitiesCreatedEvent;
+import com.useractivity.event.ActivitiesDeletedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+/**
+ * Newest activities and live count per user, so first-page timeline reads skip the database.
+ * <p>
+ * Entries are bounded by user count (W-TinyLFU eviction) and a write TTL. Committed creates and deletes update
+ * cached entries in place rather than dropping them; archival, which removes old rows and lowers counts, drops the
+ * entries of the users it touched. Striped write stamps guard population: a database read
+ * that overlapped an uncommitted or just committed write to the same user is returned to its caller but not
+ * cached, otherwise the write could be applied twice or lost.
+ * <p>
+ * Each entry carries the timeline version ({@link TimelineVersion}) it reflects, bumped with every committed write
+ * applied to it as user_activity_counts bumps it. Responses tagged with a version only use an entry at that version:
+ * a write committed on another instance, or here but not yet applied, would otherwise go out under the newer tag.
+ */
+@Component
+@RequiredArgsConstructor
+public class TimelineCache {
+
+    private static final int STAMP_STRIPES = 1024;
+
+    private static final Comparator<ActivityResponse> NEWEST_FIRST = Comparator
+            .comparing(ActivityResponse::getCreatedAt, Comparator.reverseOrder())
+            .thenComparing(ActivityResponse::getId, Comparator.reverseOrder());
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.timeline-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.timeline-cache.max-users:10000}")
+    private long maxUsers;
+
+    @Getter
+    @Value("${app.timeline-cache.entries-per-user:20}")
+    private int entriesPerUser;
+
+    @Value("${app.timeline-cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    private final AtomicLongArray writeStamps = new AtomicLongArray(STAMP_STRIPES);
+    private final AtomicIntegerArray writesInFlight = new AtomicIntegerArray(STAMP_STRIPES);
+    private Cache<Long, CachedTimeline> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "timeline");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CachedTimeline get(Long userId) {
+        return enabled ? cache.getIfPresent(userId) : null;
+    }
+
+    /**
+     * Take before reading the database; pass to {@link #populate} so a concurrent write prevents caching.
+     */
+    public long stamp(Long userId) {
+        int stripe = stripe(userId);
+        return writesInFlight.get(stripe) > 0 ? -1 : writeStamps.get(stripe);
+    }
+
+    /**
+     * Caches the newest activities read from the database (trimmed to the per-user window) and returns them untrimmed.
+     * {@code version} must have been read before the activities, so the entry is never ahead of its version.
+     */
+    public CachedTimeline populate(Long userId, long stamp, long version, List<ActivityResponse> newest,
+                                   long totalElements) {
+        CachedTimeline loaded = new CachedTimeline(List.copyOf(newest), totalElements, version);
+        int stripe = stripe(userId);
+        if (enabled && stamp >= 0 && writesInFlight.get(stripe) == 0 && writeStamps.get(stripe) == stamp) {
+            cache.put(userId, loaded.trimTo(entriesPerUser));
+        }
+        return loaded;
+    }
+
+    @EventListener
+    public void onCreating(ActivitiesCreatedEvent event) {
+        markInFlight(event.getActivities().stream().map(UserActivity::getUserId).toList());
+    }
+
+    @EventListener
+    public void onDeleting(ActivitiesDeletedEvent event) {
+        markInFlight(event.getActivities().stream().map(ActivitiesDeletedEvent.DeletedActivity::getUserId).toList());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCreated(ActivitiesCreatedEvent event) {
+        event.getActivities().forEach(activity -> writeStamps.incrementAndGet(stripe(activity.getUserId())));
+        if (enabled) {
+            // One version bump per user and transaction, as ActivityCounter applies it
+            event.getActivities().stream()
+                    .collect(Collectors.groupingBy(UserActivity::getUserId))
+                    .forEach((userId, activities) -> cache.asMap().computeIfPresent(userId, (id, cached) -> {
+                        CachedTimeline updated = cached;
+                        for (UserActivity activity : activities) {
+                            updated = updated.withCreated(UserActivityService.mapToResponse(activity), entriesPerUser);
+                        }
+                        return updated.nextVersion();
+                    }));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeleted(ActivitiesDeletedEvent event) {
+        event.getActivities().forEach(activity -> writeStamps.incrementAndGet(stripe(activity.getUserId())));
+        if (enabled) {
+            event.getActivities().stream()
+                    .collect(Collectors.groupingBy(ActivitiesDeletedEvent.DeletedActivity::getUserId))
+                    .forEach((userId, activities) -> cache.asMap().computeIfPresent(userId, (id, cached) -> {
+                        CachedTimeline updated = cached;
+                        for (ActivitiesDeletedEvent.DeletedActivity activity : activities) {
+                            updated = updated.withDeleted(activity.getId());
+                            if (updated == null) {
+                                return null;
+                            }
+                        }
+                        return updated.nextVersion();
+                    }));
+        }
+    }
+
+    @EventListener
+    public void onArchived(ActivitiesArchivedEvent event) {
+        for (Long userId : event.getUserIds()) {
+            // A read that overlapped the drop is not cached either
+            writeStamps.incrementAndGet(stripe(userId));
+            if (enabled) {
+                cache.invalidate(userId);
+            }
+        }
+    }
+
+    /**
+     * Blocks population for the users' stripes until the publishing transaction completes, however it completes: the
+     * release is registered together with the increment, so a later listener that throws cannot skip it. Outside a
+     * transaction the write is already visible and the stamp bump of the commit listener is enough.
+     */
+    private void markInFlight(List<Long> userIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                userIds.forEach(userId -> writesInFlight.decrementAndGet(stripe(userId)));
+            }
+        });
+        userIds.forEach(userId -> writesInFlight.incrementAndGet(stripe(userId)));
+    }
+
+    private static int stripe(Long userId) {
+        return (int) Math.floorMod(userId, (long) STAMP_STRIPES);
+    }
+
+    /**
+     * Immutable snapshot of a user's newest activities (newest first), their total non-deleted count and the timeline
+     * version they reflect.
+     */
+    @Getter
+    public static class CachedTimeline {
+        private final List<ActivityResponse> newest;
+        private final long totalElements;
+        private final long version;
+
+        CachedTimeline(List<ActivityResponse> newest, long totalElements, long version) {
+            this.newest = newest;
+            this.totalElements = totalElements;
+            this.version = version;
+        }
+
+        /**
+         * True when the first {@code size} activities are all known: the window is large enough or holds everything.
+         */
+        public boolean canServe(int size) {
+            return newest.size() >= size || isComplete();
+        }
+
+        private boolean isComplete() {
+            return newest.size() >= totalElements;
+        }
+
+        CachedTimeline trimTo(int entries) {
+            return newest.size() <= entries
+                    ? this
+                    : new CachedTimeline(List.copyOf(newest.subList(0, entries)), totalElements, version);
+        }
+
+        CachedTimeline withCreated(ActivityResponse activity, int entries) {
+            if (newest.stream().anyMatch(cached -> cached.getId().equals(activity.getId()))) {
+                return this;
+            }
+            List<ActivityResponse> updated = new ArrayList<>(newest);
+            int index = 0;
+            while (index < updated.size() && NEWEST_FIRST.compare(updated.get(index), activity) < 0) {
+                index++;
+            }
+            // Older than everything in a partial window: it belongs to a page we do not hold
+            if (index < updated.size() || isComplete()) {
+                updated.add(index, activity);
+            }
+            return new CachedTimeline(List.copyOf(updated), totalElements + 1, version).trimTo(entries);
+        }
+
+        CachedTimeline withDeleted(Long activityId) {
+            List<ActivityResponse> updated = new ArrayList<>(newest);
+            boolean removed = updated.removeIf(activity -> activity.getId().equals(activityId));
+            if (!removed && isComplete()) {
+                // The window claimed to hold every activity but not this one; drop the entry and reload
+                return null;
+            }
+            return new CachedTimeline(List.copyOf(updated), Math.max(0, totalElements - 1), version);
+        }
+
+        CachedTimeline nextVersion() {
+            return new CachedTimeline(newest, totalElements, version + 1);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.useractivity.service;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Change marker of a user's timeline, read from user_activity_counts: the version is bumped in the same
+ * transaction as every create and soft delete of the user, so an unchanged version means an unchanged timeline.
+ */
+@Value
+public class TimelineVersion {
+
+    // A user without a counts row has never written anything
+    public static final TimelineVersion NONE = new TimelineVersion(0L, null);
+
+    // How long after a change its date becomes usable: the rest of its second plus a second for the write to commit
+    private static final long SETTLED_MILLIS = 2000;
+
+    long version;
+    LocalDateTime lastModified;
+
+    /**
+     * Weak entity tag for one representation ({@code variant}, e.g. the negotiated media type) of a timeline URL.
+     */
+    public String eTag(Long userId, String variant) {
+        String tag = userId + "-" + version;
+        return "W/\"" + (variant == null ? tag : tag + "-" + Integer.toHexString(variant.hashCode())) + "\"";
+    }
+
+    /**
+     * Last-Modified of a response produced at {@code nowMillis}, or -1 (none, which also makes Spring ignore
+     * If-Modified-Since) while the change is recent. updated_at is written from the application clock, so it is read
+     * in the JVM's zone and compares with {@code nowMillis}. It has one-second resolution: another write in the
+     * same second keeps the date, so If-Modified-Since would answer 304 for a changed timeline. A date is only
+     * handed out once no write can share its second (RFC 9110 8.8.2.2); until then clients validate by ETag.
+     */
+    public long lastModifiedMillis(long nowMillis) {
+        if (lastModified == null) {
+            return -1;
+        }
+        long millis = lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return nowMillis - millis >= SETTLED_MILLIS ? millis : -1;
+    }
+}
@@ -1,24 +1,50 @@
 package com.useractivity.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.useractivity.dto.ActivityResponse;
+import com.useractivity.dto.BatchCreateActivityItem;
+import com.useractivity.dto.BatchCreateResponse;
+import com.useractivity.dto.BatchDeleteItemResult;
+import com.useractivity.dto.BatchDeleteResponse;
+import com.useractivity.dto.BatchItemResult;
 import com.useractivity.dto.CreateActivityRequest;
+import com.useractivity.dto.ErrorResponse;
+import com.useractivity.dto.IngestionAcceptedResponse;
 import com.useractivity.dto.TimelineResponse;
+import com.useractivity.archive.ActivityPartitionManager;
+import com.useractivity.datasource.ReadYourWritesGuard;
 import com.useractivity.entity.UserActivity;
+import com.useractivity.enums.TimelineTotals;
+import com.useractivity.event.ActivitiesCreatedEvent;
+import com.useractivity.event.ActivitiesDeletedEvent;
 import com.useractivity.exception.AlreadyDeletedException;
 import com.useractivity.exception.ResourceNotFoundException;
+import com.useractivity.ingestion.ActivityIngestor;
+import com.useractivity.ingestion.PendingActivity;
+import com.useractivity.metadata.MetadataValidator;
+import com.useractivity.repository.ActivityFilter;
 import com.useractivity.repository.UserActivityRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,8 +52,19 @@ import java.util.stream.Collectors;
 @Slf4j
 public class UserActivityService {
 
+    // Durable ingestion keys replays by correlation id (ingested_activities.correlation_id)
+    private static final int MAX_CORRELATION_ID_LENGTH = 255;
+
     private final UserActivityRepository repository;
-    private final ObjectMapper objectMapper;
+    private final MetadataValidator metadataValidator;
+    private final Validator validator;
+    private final ObjectProvider<ActivityIngestor> activityIngestor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TimelineCache timelineCache;
+    private final ActivityCounter activityCounter;
+    private final ActivityMetrics activityMetrics;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final ActivityPartitionManager partitionManager;
 
     @Value("${app.pagination.max-size:100}")
     private int maxPageSize;
@@ -35,66 +72,374 @@ public class UserActivityService {
     @Value("${app.pagination.min-size:1}")
     private int minPageSize;
 
+    @Value("${app.pagination.default-totals:counter}")
+    private String defaultTotals;
+
+    @Value("${app.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${app.partitioning.timeline-month-windows:2}")
+    private int timelineMonthWindows;
+
     @Transactional
     public ActivityResponse createActivity(Long userId, CreateActivityRequest request) {
-        // Handle null or empty metadata - MySQL JSON column requires valid JSON or null
-        String metadata = request.getMetadata();
-        if (metadata == null || metadata.trim().isEmpty()) {
-            metadata = null;
-        } else {
-            // Validate JSON format
-            validateJson(metadata);
+        UserActivity activity = toEntity(userId, request);
+
+        UserActivity saved = repository.save(activity);
+        eventPublisher.publishEvent(new ActivitiesCreatedEvent(List.of(saved)));
+        return mapToResponse(saved);
+    }
+
+    public IngestionAcceptedResponse enqueueActivity(Long userId, CreateActivityRequest request, String correlationId) {
+        ActivityIngestor ingestor = activityIngestor.getIfAvailable();
+        if (ingestor == null) {
+            throw new ResourceNotFoundException("Async ingestion is not enabled (app.ingestion.async.enabled=false)");
         }
 
-        UserActivity activity = UserActivity.builder()
-                .userId(userId)
-                .activityType(request.getActivityType().name())
-                .description(request.getDescription())
-                .metadata(metadata)
-                .isDeleted(false)
+        UserActivity activity = toEntity(userId, request);
+        // Capture the event time now, the row is only written when the micro-batch is flushed or the log replayed
+        activity.setCreatedAt(LocalDateTime.now());
+        if (correlationId != null && correlationId.length() > MAX_CORRELATION_ID_LENGTH) {
+            throw new IllegalArgumentException(String.format("X-Correlation-Id must be at most %d characters",
+                    MAX_CORRELATION_ID_LENGTH));
+        }
+        String id = correlationId == null || correlationId.isBlank() ? UUID.randomUUID().toString() : correlationId;
+        ingestor.submit(new PendingActivity(id, activity));
+
+        return IngestionAcceptedResponse.builder()
+                .correlationId(id)
+                .status("ACCEPTED")
+                .acceptedAt(activity.getCreatedAt())
                 .build();
+    }
 
-        UserActivity saved = repository.save(activity);
-        return mapToResponse(saved);
+    @Transactional
+    public BatchCreateResponse createActivities(List<BatchCreateActivityItem> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one activity");
+        }
+        if (items.size() > maxBatchSize) {
+            throw new IllegalArgumentException(
+                    String.format("Batch size cannot exceed %d. Provided: %d", maxBatchSize, items.size()));
+        }
+
+        // Validate every item up front so one bad item does not cost the whole batch
+        BatchItemResult[] results = new BatchItemResult[items.size()];
+        List<UserActivity> accepted = new ArrayList<>(items.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BatchCreateActivityItem item = items.get(i);
+            List<ErrorResponse.FieldError> errors = validateItem(item);
+            if (!errors.isEmpty()) {
+                results[i] = BatchItemResult.builder().index(i).status(BatchItemResult.REJECTED).errors(errors).build();
+                continue;
+            }
+            accepted.add(toEntity(item.getUserId(), item));
+            acceptedIndexes.add(i);
+        }
+
+        // Sequence-allocated ids let Hibernate group these into JDBC batches (hibernate.jdbc.batch_size)
+        List<UserActivity> saved = repository.saveAll(accepted);
+        eventPublisher.publishEvent(new ActivitiesCreatedEvent(saved));
+        for (int i = 0; i < saved.size(); i++) {
+            int index = acceptedIndexes.get(i);
+            results[index] = BatchItemResult.builder()
+                    .index(index)
+                    .status(BatchItemResult.CREATED)
+                    .activity(mapToResponse(saved.get(i)))
+                    .build();
+        }
+
+        return BatchCreateResponse.builder()
+                .received(items.size())
+                .created(saved.size())
+                .rejected(items.size() - saved.size())
+                .results(Arrays.asList(results))
+                .build();
     }
 
     @Transactional
     public void deleteActivity(Long activityId) {
-        UserActivity activity = repository.findById(activityId)
-                .orElseThrow(() -> new ResourceNotFoundException("Activity not found with id: " + activityId));
+        if (repository.softDeleteIfLive(activityId, LocalDateTime.now()) == 0) {
+            // Only the failure path pays for telling the two cases apart
+            if (repository.existsById(activityId)) {
+                throw new AlreadyDeletedException("Activity already deleted with id: " + activityId);
+            }
+            throw new ResourceNotFoundException("Activity not found with id: " + activityId);
+        }
+
+        eventPublisher.publishEvent(new ActivitiesDeletedEvent(repository.findDeletedActivities(List.of(activityId))));
+    }
+
+    @Transactional
+    public BatchDeleteResponse deleteActivities(List<Long> activityIds) {
+        if (activityIds == null || activityIds.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one activity id");
+        }
+        if (activityIds.contains(null)) {
+            throw new IllegalArgumentException("Activity ids must not be null");
+        }
+        Set<Long> ids = new LinkedHashSet<>(activityIds);
+        if (ids.size() > maxBatchSize) {
+            throw new IllegalArgumentException(
+                    String.format("Batch size cannot exceed %d. Provided: %d", maxBatchSize, ids.size()));
+        }
 
-        if (Boolean.TRUE.equals(activity.getIsDeleted())) {
-            throw new AlreadyDeletedException("Activity already deleted with id: " + activityId);
+        List<ActivitiesDeletedEvent.DeletedActivity> live = repository.lockLiveActivities(ids);
+        Set<Long> deletedIds = live.stream().map(ActivitiesDeletedEvent.DeletedActivity::getId).collect(Collectors.toSet());
+        if (!live.isEmpty()) {
+            repository.softDeleteAllIfLive(deletedIds, LocalDateTime.now());
+            eventPublisher.publishEvent(new ActivitiesDeletedEvent(live));
         }
 
-        activity.setIsDeleted(true);
-        repository.save(activity);
+        Set<Long> existing = deletedIds.size() == ids.size() ? Set.of()
+                : new HashSet<>(repository.findExistingIds(ids.stream().filter(id -> !deletedIds.contains(id)).toList()));
+        List<BatchDeleteItemResult> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            String status = deletedIds.contains(id) ? BatchDeleteItemResult.DELETED
+                    : existing.contains(id) ? BatchDeleteItemResult.ALREADY_DELETED
+                    : BatchDeleteItemResult.NOT_FOUND;
+            results.add(BatchDeleteItemResult.builder().activityId(id).status(status).build());
+        }
+
+        return BatchDeleteResponse.builder()
+                .received(ids.size())
+                .deleted(deletedIds.size())
+                .results(results)
+                .build();
     }
 
-    public TimelineResponse getTimeline(Long userId, int page, int size) {
-        log.info("\nActivityService TimeLine In........");
+    /**
+     * Checks a timeline request as {@link #getTimeline} / {@link #getTimelineByCursor} would, then returns the
+     * user's timeline version. Reads one user_activity_counts row and no activity rows.
+     */
+    @Transactional(readOnly = true)
+    public TimelineVersion getTimelineVersion(Long userId, int page, int size, String cursor, String totals) {
+        if (cursor != null) {
+            validatePaginationParameters(0, size);
+            if (!cursor.isBlank()) {
+                TimelineCursor.decode(cursor);
+            }
+        } else {
+            validatePaginationParameters(page, size);
+            TimelineTotals.from(totals == null ? defaultTotals : totals);
+        }
+        readYourWritesGuard.readingUser(userId);
+        return activityCounter.getTimelineVersion(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public TimelineResponse getTimeline(Long userId, int page, int size, String totals) {
+        return getTimeline(userId, page, size, totals, ActivityFilter.NONE, null);
+    }
 
+    /**
+     * Offset page mode. {@code version} is the version the response will be tagged with (see
+     * {@link #getTimelineVersion}), or null for an untagged response; cached activities are only used at that version.
+     */
+    @Transactional(readOnly = true)
+    public TimelineResponse getTimeline(Long userId, int page, int size, String totals, ActivityFilter filter,
+                                        TimelineVersion version) {
         validatePaginationParameters(page, size);
+        readYourWritesGuard.readingUser(userId);
+        activityMetrics.recordTimelineRequest(false, size);
+        TimelineTotals mode = TimelineTotals.from(totals == null ? defaultTotals : totals);
+
+        if (!filter.isEmpty()) {
+            return getFilteredPage(userId, page, size, mode, filter);
+        }
+
+        // Exact totals always come from COUNT, the cached count is only as fresh as this instance's writes
+        if (page == 0 && mode != TimelineTotals.EXACT && timelineCache.isEnabled()) {
+            return getFirstPage(userId, size, mode, version);
+        }
+
+        // Ordering comes from the query itself so it stays aligned with idx_user_timeline
+        Pageable pageable = PageRequest.of(page, size);
+        TimelineResponse.TimelineResponseBuilder response = TimelineResponse.builder()
+                .userId(userId)
+                .page(page)
+                .size(size);
+        Slice<ActivityResponse> activitySlice;
+        if (mode == TimelineTotals.EXACT) {
+            Page<ActivityResponse> activityPage = repository.findByUserIdAndNotDeletedOrderByCreatedAtDesc(userId, pageable);
+            response.totalElements(activityPage.getTotalElements()).totalPages(activityPage.getTotalPages());
+            activitySlice = activityPage;
+        } else {
+            activitySlice = repository.findTimelineSlice(userId, pageable);
+            if (mode == TimelineTotals.COUNTER) {
+                withTotals(response, activityCounter.getActiveCount(userId), size);
+            } else {
+                response.hasNext(activitySlice.hasNext());
+            }
+        }
+
+        List<ActivityResponse> activities = activitySlice.getContent();
+
+        // Payloads only at debug: the arguments are formatted (DTO toString) only when debug is enabled
+        log.debug("TimeLine Results : {}", activities);
+        return response
+                .activities(activities)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public TimelineResponse getTimelineByCursor(Long userId, String cursor, int size) {
+        return getTimelineByCursor(userId, cursor, size, ActivityFilter.NONE, null);
+    }
+
+    /**
+     * Cursor mode; a cursor is a position only, so follow-up requests must repeat the filter. {@code version} as for
+     * {@link #getTimeline(Long, int, int, String, ActivityFilter, TimelineVersion)}.
+     */
+    @Transactional(readOnly = true)
+    public TimelineResponse getTimelineByCursor(Long userId, String cursor, int size, ActivityFilter filter,
+                                                TimelineVersion version) {
+        validatePaginationParameters(0, size);
+        readYourWritesGuard.readingUser(userId);
+        activityMetrics.recordTimelineRequest(true, size);
+
+        // The cache holds the unfiltered head of the timeline only
+        if ((cursor == null || cursor.isBlank()) && filter.isEmpty() && timelineCache.isEnabled()) {
+            return getFirstPageByCursor(userId, size, version);
+        }
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<UserActivity> activityPage = repository.findByUserIdAndNotDeletedOrderByCreatedAtDesc(userId, pageable);
+        // Fetch one extra row to learn whether another page exists without a COUNT query
+        List<ActivityResponse> activities = timelineRows(userId, filter,
+                cursor == null || cursor.isBlank() ? null : TimelineCursor.decode(cursor), size + 1);
 
-        List<ActivityResponse> activities = activityPage.getContent().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (activities.size() > size) {
+            activities = new ArrayList<>(activities.subList(0, size));
+            ActivityResponse last = activities.get(size - 1);
+            nextCursor = new TimelineCursor(last.getCreatedAt(), last.getId()).encode();
+        }
 
-        log.info("TimeLine Results : \n{}", activities);
         return TimelineResponse.builder()
+                .userId(userId)
+                .size(size)
+                .activities(activities)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Offset page of a filtered timeline. The maintained count covers the whole timeline, so counter totals fall
+     * back to hasNext here; exact runs a COUNT with the same filter.
+     */
+    private TimelineResponse getFilteredPage(Long userId, int page, int size, TimelineTotals mode,
+                                             ActivityFilter filter) {
+        int offset = (int) Math.min(Integer.MAX_VALUE, (long) page * size);
+        TimelineResponse.TimelineResponseBuilder response = TimelineResponse.builder()
                 .userId(userId)
                 .page(page)
+                .size(size);
+        List<ActivityResponse> activities;
+        if (mode == TimelineTotals.EXACT) {
+            activities = repository.findTimeline(userId, filter, null, null, offset, size);
+            withTotals(response, repository.countTimeline(userId, filter), size);
+        } else {
+            activities = repository.findTimeline(userId, filter, null, null, offset, size + 1);
+            response.hasNext(activities.size() > size);
+            if (activities.size() > size) {
+                activities = new ArrayList<>(activities.subList(0, size));
+            }
+        }
+        return response
+                .activities(activities)
+                .build();
+    }
+
+    private TimelineResponse getFirstPage(Long userId, int size, TimelineTotals mode, TimelineVersion version) {
+        TimelineCache.CachedTimeline newest = newestActivities(userId, size, version);
+        TimelineResponse.TimelineResponseBuilder response = TimelineResponse.builder()
+                .userId(userId)
+                .page(0)
+                .size(size)
+                .activities(firstActivities(newest, size));
+        if (mode == TimelineTotals.COUNTER) {
+            withTotals(response, newest.getTotalElements(), size);
+        } else {
+            response.hasNext(newest.getTotalElements() > size);
+        }
+        return response.build();
+    }
+
+    private static void withTotals(TimelineResponse.TimelineResponseBuilder response, long totalElements, int size) {
+        response.totalElements(totalElements).totalPages((int) ((totalElements + size - 1) / size));
+    }
+
+    private TimelineResponse getFirstPageByCursor(Long userId, int size, TimelineVersion version) {
+        TimelineCache.CachedTimeline newest = newestActivities(userId, size, version);
+        List<ActivityResponse> activities = firstActivities(newest, size);
+
+        String nextCursor = null;
+        if (newest.getTotalElements() > size) {
+            ActivityResponse last = activities.get(size - 1);
+            nextCursor = new TimelineCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return TimelineResponse.builder()
+                .userId(userId)
                 .size(size)
-                .totalElements(activityPage.getTotalElements())
-                .totalPages(activityPage.getTotalPages())
                 .activities(activities)
+                .nextCursor(nextCursor)
                 .build();
     }
 
-    private ActivityResponse mapToResponse(UserActivity activity) {
+    private TimelineCache.CachedTimeline newestActivities(Long userId, int size, TimelineVersion version) {
+        TimelineCache.CachedTimeline cached = timelineCache.get(userId);
+        // An entry behind the tag's version would send older activities under it (written on another instance, or
+        // committed here but not yet applied)
+        if (cached != null && cached.canServe(size) && (version == null || cached.getVersion() == version.getVersion())) {
+            return cached;
+        }
+
+        // Load at least a full cache window so following requests with other page sizes hit as well; the version is
+        // read first so the entry is never tagged ahead of its rows
+        long stamp = timelineCache.stamp(userId);
+        long loadedVersion = activityCounter.getTimelineVersion(userId).getVersion();
+        int window = Math.max(size, timelineCache.getEntriesPerUser());
+        List<ActivityResponse> activities = timelineRows(userId, ActivityFilter.NONE, null, window + 1);
+        boolean hasMore = activities.size() > window;
+        if (hasMore) {
+            activities = new ArrayList<>(activities.subList(0, window));
+        }
+        // A short read is the whole timeline; otherwise the counter, never below what the read already proves
+        long totalElements = hasMore
+                ? Math.max(activityCounter.getActiveCount(userId), activities.size() + 1L)
+                : activities.size();
+        return timelineCache.populate(userId, stamp, loadedVersion, activities, totalElements);
+    }
+
+    /**
+     * Newest-first rows matching {@code filter} after {@code after} (or from the top). On a partitioned table this reads month by month
+     * so MySQL only opens the partitions the page needs.
+     */
+    private List<ActivityResponse> timelineRows(Long userId, ActivityFilter filter, TimelineCursor after, int limit) {
+        if (partitionManager.isPartitioned()) {
+            return after == null
+                    ? repository.findTimelineByMonth(userId, filter, null, null, limit, timelineMonthWindows)
+                    : repository.findTimelineByMonth(userId, filter, after.getCreatedAt(), after.getId(), limit,
+                            timelineMonthWindows);
+        }
+        if (!filter.isEmpty()) {
+            return after == null
+                    ? repository.findTimeline(userId, filter, null, null, 0, limit)
+                    : repository.findTimeline(userId, filter, after.getCreatedAt(), after.getId(), 0, limit);
+        }
+        Pageable pageable = PageRequest.of(0, limit);
+        return after == null
+                ? repository.findTimelineHead(userId, pageable)
+                : repository.findTimelineAfter(userId, after.getCreatedAt(), after.getId(), pageable);
+    }
+
+    private static List<ActivityResponse> firstActivities(TimelineCache.CachedTimeline newest, int size) {
+        List<ActivityResponse> activities = newest.getNewest();
+        return new ArrayList<>(activities.subList(0, Math.min(size, activities.size())));
+    }
+
+    public static ActivityResponse mapToResponse(UserActivity activity) {
         return ActivityResponse.builder()
                 .id(activity.getId())
                 .activityType(activity.getActivityType())
@@ -104,12 +449,50 @@ public class UserActivityService {
                 .build();
     }
 
-    private void validateJson(String json) {
-        try {
-            objectMapper.readTree(json);
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Invalid JSON format in metadata field");
+    private UserActivity toEntity(Long userId, CreateActivityRequest request) {
+        // Handle null or empty metadata - MySQL JSON column requires valid JSON or null
+        String metadata = request.getMetadata();
+        if (metadata == null || metadata.trim().isEmpty()) {
+            metadata = null;
+        } else {
+            metadataValidator.validate(metadata);
+        }
+
+        return UserActivity.builder()
+                .userId(userId)
+                .activityType(request.getActivityType().name())
+                .description(request.getDescription())
+                .metadata(metadata)
+                .isDeleted(false)
+                .build();
+    }
+
+    private List<ErrorResponse.FieldError> validateItem(BatchCreateActivityItem item) {
+        List<ErrorResponse.FieldError> errors = new ArrayList<>();
+        if (item == null) {
+            errors.add(ErrorResponse.FieldError.builder().field("item").message("item is required").build());
+            return errors;
+        }
+        for (ConstraintViolation<BatchCreateActivityItem> violation : validator.validate(item)) {
+            errors.add(ErrorResponse.FieldError.builder()
+                    .field(violation.getPropertyPath().toString())
+                    .message(violation.getMessage())
+                    .rejectedValue(violation.getInvalidValue())
+                    .build());
+        }
+        String metadata = item.getMetadata();
+        if (metadata != null && !metadata.trim().isEmpty()) {
+            try {
+                metadataValidator.validate(metadata);
+            } catch (IllegalArgumentException e) {
+                errors.add(ErrorResponse.FieldError.builder()
+                        .field("metadata")
+                        .message(e.getMessage())
+                        .rejectedValue(metadata)
+                        .build());
+            }
         }
+        return errors;
     }
 
 
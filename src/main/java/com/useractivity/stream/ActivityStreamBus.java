@@ -0,0 +1,323 @@
+package com.useractivity.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.useractivity.entity.UserActivity;
+import com.useractivity.event.ActivitiesCreatedEvent;
+import com.useractivity.event.ActivitiesDeletedEvent;
+import com.useractivity.exception.StreamUnavailableException;
+import com.useractivity.service.UserActivityService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process fan-out of committed creates and deletes to open activity streams.
+ * <p>
+ * Events are numbered by one sequence per process; stream event ids are {@code <epoch>-<sequence>}, where the epoch
+ * changes on every start. The newest {@code replay-size} events are kept so a reconnecting client that sends
+ * {@code Last-Event-ID} gets what it missed. When that is no longer possible (restart, the events were evicted or
+ * the client fell further behind than its buffer) it gets a {@code reset} event and should reload the timeline.
+ * <p>
+ * Publishing never blocks on a connection: each subscriber has a bounded buffer drained by its own sender task (on a
+ * virtual thread when {@code spring.threads.virtual.enabled} is set), so a client that stops reading holds only its
+ * own sender. A subscriber whose buffer is full, or whose send has been blocked for {@code send-timeout-ms}, is
+ * disconnected so it can resume from its last received id.
+ * Only writes handled by this instance are seen.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityStreamBus {
+
+    static final String RESET = "reset";
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.stream.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.stream.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${app.stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${app.stream.replay-size:10000}")
+    private int replaySize;
+
+    @Value("${app.stream.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.stream.reconnect-ms:3000}")
+    private long reconnectMs;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Deque<ActivityStreamEvent> replay = new ArrayDeque<>();
+    // The same events by user, so a resume walks only the events of its own user
+    private final Map<Long, Deque<ActivityStreamEvent>> replayByUser = new HashMap<>();
+    private final Map<Long, List<ActivityStreamSubscriber>> subscribers = new HashMap<>();
+    private long sequence;
+    private int subscriberCount;
+    private Executor sender;
+
+    private Counter publishedCounter;
+    private Counter droppedFullCounter;
+    private Counter droppedStalledCounter;
+
+    @PostConstruct
+    void init() {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor virtualSender = new SimpleAsyncTaskExecutor("activity-stream-");
+            virtualSender.setVirtualThreads(true);
+            sender = virtualSender;
+        } else {
+            // Sends are short unless a client stalls; idle threads are let go after a minute
+            sender = Executors.newCachedThreadPool(new CustomizableThreadFactory("activity-stream-"));
+        }
+        Gauge.builder("useractivity.stream.subscribers", this, ActivityStreamBus::getSubscriberCount)
+                .description("Open activity streams")
+                .register(meterRegistry);
+        publishedCounter = Counter.builder("useractivity.stream.events")
+                .description("Activity events published to the stream bus")
+                .register(meterRegistry);
+        droppedFullCounter = Counter.builder("useractivity.stream.dropped")
+                .description("Streams disconnected because they fell behind")
+                .tag("reason", "buffer_full")
+                .register(meterRegistry);
+        droppedStalledCounter = Counter.builder("useractivity.stream.dropped")
+                .description("Streams disconnected because they fell behind")
+                .tag("reason", "send_timeout")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        List<ActivityStreamSubscriber> open;
+        synchronized (this) {
+            open = subscribers.values().stream().flatMap(List::stream).toList();
+        }
+        open.forEach(ActivityStreamSubscriber::close);
+        if (sender instanceof ExecutorService pool) {
+            pool.shutdown();
+        } else if (sender instanceof SimpleAsyncTaskExecutor virtualSender) {
+            virtualSender.close();
+        }
+    }
+
+    /**
+     * Opens a stream of the user's activity events, first replaying those after {@code lastEventId} when given.
+     */
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        return subscribe(userId, lastEventId, new SseEmitter(timeoutMs)).getEmitter();
+    }
+
+    ActivityStreamSubscriber subscribe(Long userId, String lastEventId, SseEmitter emitter) {
+        if (!enabled) {
+            throw new StreamUnavailableException("Activity streams are disabled, poll the timeline instead");
+        }
+        ActivityStreamSubscriber subscriber = new ActivityStreamSubscriber(userId, emitter, bufferSize, sender);
+        synchronized (this) {
+            if (subscriberCount >= maxSubscribers) {
+                throw new StreamUnavailableException(
+                        String.format("Too many open activity streams (limit %d), retry later", maxSubscribers));
+            }
+            subscribers.computeIfAbsent(userId, id -> new ArrayList<>()).add(subscriber);
+            subscriberCount++;
+            // Replay and registration under one lock: nothing published in between is missed or sent twice
+            subscriber.offer(SseEmitter.event().reconnectTime(reconnectMs).comment("connected"));
+            if (lastEventId != null && !replayAfter(subscriber, lastEventId)) {
+                subscriber.offer(SseEmitter.event().name(RESET).data("{}"));
+            }
+        }
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> unregister(subscriber));
+        return subscriber;
+    }
+
+    public synchronized int getSubscriberCount() {
+        return subscriberCount;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCreated(ActivitiesCreatedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        for (UserActivity activity : event.getActivities()) {
+            publish(activity.getUserId(), ActivityStreamEvent.CREATED, UserActivityService.mapToResponse(activity));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeleted(ActivitiesDeletedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        for (ActivitiesDeletedEvent.DeletedActivity activity : event.getActivities()) {
+            publish(activity.getUserId(), ActivityStreamEvent.DELETED, Map.of("id", activity.getId()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        // Keeps idle connections open through proxies and finds clients that went away
+        List<ActivityStreamSubscriber> open;
+        synchronized (this) {
+            open = subscribers.values().stream().flatMap(List::stream).toList();
+        }
+        for (ActivityStreamSubscriber subscriber : open) {
+            if (!subscriber.offer(SseEmitter.event().comment("heartbeat"))) {
+                drop(subscriber, droppedFullCounter);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.SECONDS)
+    public void dropStalled() {
+        // A client that stopped reading blocks its sender inside the send, before its buffer fills up
+        List<ActivityStreamSubscriber> open;
+        synchronized (this) {
+            open = subscribers.values().stream().flatMap(List::stream).toList();
+        }
+        long now = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (ActivityStreamSubscriber subscriber : open) {
+            if (subscriber.isStalled(now, timeoutNanos)) {
+                drop(subscriber, droppedStalledCounter);
+            }
+        }
+    }
+
+    private void publish(Long userId, String name, Object payload) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialize {} event for user {}", name, userId, e);
+            return;
+        }
+        List<ActivityStreamSubscriber> full = null;
+        synchronized (this) {
+            ActivityStreamEvent event = new ActivityStreamEvent(++sequence, userId, name, data);
+            replay.addLast(event);
+            replayByUser.computeIfAbsent(userId, id -> new ArrayDeque<>()).addLast(event);
+            if (replay.size() > replaySize) {
+                // The oldest event overall is also the oldest of its user
+                ActivityStreamEvent evicted = replay.removeFirst();
+                Deque<ActivityStreamEvent> userReplay = replayByUser.get(evicted.getUserId());
+                userReplay.removeFirst();
+                if (userReplay.isEmpty()) {
+                    replayByUser.remove(evicted.getUserId());
+                }
+            }
+            for (ActivityStreamSubscriber subscriber : subscribers.getOrDefault(userId, List.of())) {
+                if (!subscriber.offer(event.toSse(epoch))) {
+                    full = full == null ? new ArrayList<>() : full;
+                    full.add(subscriber);
+                }
+            }
+        }
+        publishedCounter.increment();
+        if (full != null) {
+            full.forEach(subscriber -> drop(subscriber, droppedFullCounter));
+        }
+    }
+
+    // Caller holds the lock. False when the events after lastEventId are no longer all known. Walks back from the
+    // user's newest event and stops at lastEventId or a buffer's worth, so the lock is held for at most that many.
+    private boolean replayAfter(ActivityStreamSubscriber subscriber, String lastEventId) {
+        long after = parseSequence(lastEventId);
+        if (after < 0 || after > sequence) {
+            return false;
+        }
+        if (after < sequence && (replay.isEmpty() || replay.peekFirst().getSequence() > after + 1)) {
+            return false;
+        }
+        Deque<ActivityStreamEvent> userReplay = replayByUser.get(subscriber.getUserId());
+        List<ActivityStreamEvent> missed = new ArrayList<>();
+        Iterator<ActivityStreamEvent> newestFirst = userReplay == null
+                ? Collections.emptyIterator() : userReplay.descendingIterator();
+        while (newestFirst.hasNext()) {
+            ActivityStreamEvent event = newestFirst.next();
+            if (event.getSequence() <= after) {
+                break;
+            }
+            missed.add(event);
+            // Leave room for the connected comment; a backlog this large is cheaper to reload from the timeline
+            if (missed.size() >= bufferSize - 1) {
+                return false;
+            }
+        }
+        for (int i = missed.size() - 1; i >= 0; i--) {
+            subscriber.offer(missed.get(i).toSse(epoch));
+        }
+        return true;
+    }
+
+    // Sequence of an id issued by this process, -1 for ids from an earlier run or not ours
+    private long parseSequence(String lastEventId) {
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void drop(ActivityStreamSubscriber subscriber, Counter reason) {
+        if (unregister(subscriber)) {
+            reason.increment();
+            log.warn("Dropping slow activity stream of user {}: {} events buffered, {}",
+                    subscriber.getUserId(), subscriber.getBuffered(), reason.getId().getTag("reason"));
+            subscriber.close();
+        }
+    }
+
+    private synchronized boolean unregister(ActivityStreamSubscriber subscriber) {
+        List<ActivityStreamSubscriber> userSubscribers = subscribers.get(subscriber.getUserId());
+        if (userSubscribers == null || !userSubscribers.remove(subscriber)) {
+            return false;
+        }
+        if (userSubscribers.isEmpty()) {
+            subscribers.remove(subscriber.getUserId());
+        }
+        subscriberCount--;
+        return true;
+    }
+}
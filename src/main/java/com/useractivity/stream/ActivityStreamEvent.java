@@ -0,0 +1,25 @@
+package com.useractivity.stream;
+
+import lombok.Value;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * One committed change to a user's activities, serialized once and shared by every subscriber and the replay buffer.
+ */
+@Value
+class ActivityStreamEvent {
+    static final String CREATED = "activity.created";
+    static final String DELETED = "activity.deleted";
+
+    long sequence;
+    Long userId;
+    String name;
+    String data;
+
+    SseEmitter.SseEventBuilder toSse(String epoch) {
+        return SseEmitter.event()
+                .id(epoch + "-" + sequence)
+                .name(name)
+                .data(data);
+    }
+}
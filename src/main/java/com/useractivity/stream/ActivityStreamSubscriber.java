@@ -0,0 +1,144 @@
+package com.useractivity.stream;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One open stream: a bounded buffer filled by the publishing thread and drained to the connection by its own sender
+ * task, so a slow socket never blocks the writer that committed the activity or the streams of other clients.
+ * <p>
+ * A send that has not returned after the send timeout marks the stream as stalled; closing it interrupts the sender
+ * and leaves completing the emitter to the sender, because the emitter's send and complete share a monitor.
+ */
+class ActivityStreamSubscriber {
+
+    private final Long userId;
+    private final SseEmitter emitter;
+    private final BlockingQueue<SseEmitter.SseEventBuilder> buffer;
+    private final Executor sender;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean closed;
+
+    // Guarded by this: the thread inside emitter.send and when it started, null while no send is in progress
+    private Thread sendingThread;
+    private long sendingSince;
+    private boolean completeAfterSend;
+
+    ActivityStreamSubscriber(Long userId, SseEmitter emitter, int bufferSize, Executor sender) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.sender = sender;
+    }
+
+    Long getUserId() {
+        return userId;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    int getBuffered() {
+        return buffer.size();
+    }
+
+    /**
+     * Queues the event without blocking; false when the buffer is full and the subscriber has fallen behind.
+     */
+    boolean offer(SseEmitter.SseEventBuilder event) {
+        if (closed) {
+            return true;
+        }
+        if (!buffer.offer(event)) {
+            return false;
+        }
+        scheduleDrain();
+        return true;
+    }
+
+    /**
+     * True when a single send has been blocked on the connection for longer than {@code timeoutNanos}.
+     */
+    synchronized boolean isStalled(long nowNanos, long timeoutNanos) {
+        return sendingThread != null && nowNanos - sendingSince > timeoutNanos;
+    }
+
+    void close() {
+        synchronized (this) {
+            closed = true;
+            buffer.clear();
+            if (sendingThread != null) {
+                // complete() would wait for the blocked send; the sender completes once the send gives up
+                completeAfterSend = true;
+                sendingThread.interrupt();
+                return;
+            }
+        }
+        emitter.complete();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                draining.set(false);
+                close();
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while ((event = startSend()) != null) {
+                try {
+                    emitter.send(event);
+                } finally {
+                    finishSend();
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; the container reports it and the emitter's callbacks unregister us
+            closed = true;
+            buffer.clear();
+        } finally {
+            draining.set(false);
+            // A close that interrupted the send is not meant for the next task run by this thread
+            Thread.interrupted();
+        }
+        // An offer may have found draining still set after our last poll
+        if (!closed && !buffer.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    private synchronized SseEmitter.SseEventBuilder startSend() {
+        SseEmitter.SseEventBuilder event = closed ? null : buffer.poll();
+        if (event != null) {
+            sendingThread = Thread.currentThread();
+            sendingSince = System.nanoTime();
+        }
+        return event;
+    }
+
+    private void finishSend() {
+        boolean complete;
+        synchronized (this) {
+            sendingThread = null;
+            complete = completeAfterSend;
+            completeAfterSend = false;
+        }
+        if (complete) {
+            emitter.complete();
+        }
+    }
+}
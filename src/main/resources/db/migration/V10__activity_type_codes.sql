@@ -0,0 +1,37 @@
+-- Stores activity_type as the one-byte ActivityType code instead of the name, in user_activities and
+-- user_activity_rollups: each row, idx_user_type_timeline entry and rollup key shrinks from the name to one byte.
+-- activity_types maps codes to names for ad-hoc SQL and is where new types are registered (next unused code,
+-- same as the enum). Rows whose name has no code stay NULL and fail the NOT NULL change, which aborts the
+-- migration before any name is dropped. MySQL rebuilds both tables: run in a maintenance window with writes
+-- stopped, and deploy the version that writes codes right after.
+CREATE TABLE IF NOT EXISTS activity_types (
+    code TINYINT PRIMARY KEY,
+    name VARCHAR(50) NOT NULL UNIQUE
+);
+
+INSERT IGNORE INTO activity_types (code, name) VALUES
+    (1, 'LOGIN'), (2, 'LOGOUT'), (3, 'PASSWORD_CHANGE'), (4, 'PROFILE_UPDATE');
+
+ALTER TABLE user_activities ADD COLUMN activity_type_code TINYINT NULL;
+
+UPDATE user_activities ua
+JOIN activity_types t ON t.name = ua.activity_type
+SET ua.activity_type_code = t.code;
+
+ALTER TABLE user_activities
+    DROP INDEX idx_user_type_timeline,
+    DROP COLUMN activity_type,
+    CHANGE COLUMN activity_type_code activity_type TINYINT NOT NULL AFTER user_id,
+    ADD INDEX idx_user_type_timeline (user_id, activity_type, is_deleted, created_at DESC, id DESC);
+
+ALTER TABLE user_activity_rollups ADD COLUMN activity_type_code TINYINT NULL;
+
+UPDATE user_activity_rollups r
+JOIN activity_types t ON t.name = r.activity_type
+SET r.activity_type_code = t.code;
+
+ALTER TABLE user_activity_rollups
+    DROP PRIMARY KEY,
+    DROP COLUMN activity_type,
+    CHANGE COLUMN activity_type_code activity_type TINYINT NOT NULL AFTER bucket_start,
+    ADD PRIMARY KEY (user_id, granularity, bucket_start, activity_type);
@@ -0,0 +1,11 @@
+-- Keys of write-ahead log records stored by the replayer (app.ingestion.async.durable=true), committed in the same
+-- transaction as their activities. A batch replayed again after a crash between that commit and the log checkpoint
+-- is skipped instead of stored twice. The replayer deletes the keys once the checkpoint has passed them, so the
+-- table stays small. Correlation id and acceptance time (microseconds) together tell apart activities sent with
+-- the same X-Correlation-Id.
+CREATE TABLE IF NOT EXISTS ingested_activities (
+    correlation_id VARCHAR(255) NOT NULL,
+    accepted_at TIMESTAMP(6) NOT NULL,
+    activity_id BIGINT NOT NULL,
+    PRIMARY KEY (correlation_id, accepted_at)
+);
@@ -0,0 +1,7 @@
+-- Replaces the single-column user_id index with a composite index matching the timeline query
+-- (user_id = ? AND is_deleted = false ORDER BY created_at DESC, id DESC), so MySQL reads the page
+-- straight from the index instead of sorting every row of the user.
+-- Apply to existing databases created from the original schema.sql.
+ALTER TABLE user_activities
+    ADD INDEX idx_user_timeline (user_id, is_deleted, created_at DESC, id DESC),
+    DROP INDEX idx_user_id;
@@ -0,0 +1,9 @@
+-- user_activities.id moves from IDENTITY to a pooled sequence so Hibernate can batch inserts.
+-- MySQL has no sequences; Hibernate emulates one with this single-row table. next_val starts a full
+-- allocation block (50) past the current maximum id so the first pooled block cannot collide.
+CREATE TABLE IF NOT EXISTS user_activities_seq (
+    next_val BIGINT
+);
+
+INSERT INTO user_activities_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM user_activities;
@@ -0,0 +1,16 @@
+-- Per-user count of non-deleted activities so the timeline can report totals without COUNT(*).
+-- The application updates it in the same transaction as each create and soft delete. Run the backfill
+-- before deploying the version that maintains the counter (or with writes stopped); re-running it
+-- also repairs a counter that drifted, e.g. after rows were changed outside the application.
+CREATE TABLE IF NOT EXISTS user_activity_counts (
+    user_id BIGINT PRIMARY KEY,
+    active_count BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO user_activity_counts (user_id, active_count, updated_at)
+SELECT user_id, COUNT(*), CURRENT_TIMESTAMP
+FROM user_activities
+WHERE is_deleted = FALSE
+GROUP BY user_id
+ON DUPLICATE KEY UPDATE active_count = VALUES(active_count), updated_at = CURRENT_TIMESTAMP;
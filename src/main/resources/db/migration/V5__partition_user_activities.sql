@@ -0,0 +1,47 @@
+-- Monthly RANGE partitions of user_activities on created_at, so timeline reads can be pruned to the months
+-- they need and old months can be archived by dropping a partition instead of deleting rows.
+-- Bounds are UNIX_TIMESTAMP values of the first instant (UTC) of the following month: RANGE COLUMNS does not
+-- accept TIMESTAMP columns. Partition pYYYYMM holds that month; older rows share p_history. ActivityPartitionManager
+-- adds later months by splitting the (empty) pmax partition ahead of time.
+-- MySQL rebuilds the table for both statements: run in a maintenance window, after V4.
+ALTER TABLE user_activities
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+ALTER TABLE user_activities
+PARTITION BY RANGE (UNIX_TIMESTAMP(created_at)) (
+    PARTITION p_history VALUES LESS THAN (1735689600),  -- before 2025-01
+    PARTITION p202501 VALUES LESS THAN (1738368000),
+    PARTITION p202502 VALUES LESS THAN (1740787200),
+    PARTITION p202503 VALUES LESS THAN (1743465600),
+    PARTITION p202504 VALUES LESS THAN (1746057600),
+    PARTITION p202505 VALUES LESS THAN (1748736000),
+    PARTITION p202506 VALUES LESS THAN (1751328000),
+    PARTITION p202507 VALUES LESS THAN (1754006400),
+    PARTITION p202508 VALUES LESS THAN (1756684800),
+    PARTITION p202509 VALUES LESS THAN (1759276800),
+    PARTITION p202510 VALUES LESS THAN (1761955200),
+    PARTITION p202511 VALUES LESS THAN (1764547200),
+    PARTITION p202512 VALUES LESS THAN (1767225600),
+    PARTITION p202601 VALUES LESS THAN (1769904000),
+    PARTITION p202602 VALUES LESS THAN (1772323200),
+    PARTITION p202603 VALUES LESS THAN (1775001600),
+    PARTITION p202604 VALUES LESS THAN (1777593600),
+    PARTITION p202605 VALUES LESS THAN (1780272000),
+    PARTITION p202606 VALUES LESS THAN (1782864000),
+    PARTITION p202607 VALUES LESS THAN (1785542400),
+    PARTITION p202608 VALUES LESS THAN (1788220800),
+    PARTITION p202609 VALUES LESS THAN (1790812800),
+    PARTITION p202610 VALUES LESS THAN (1793491200),
+    PARTITION p202611 VALUES LESS THAN (1796083200),
+    PARTITION p202612 VALUES LESS THAN (1798761600),
+    PARTITION p202701 VALUES LESS THAN (1801440000),
+    PARTITION pmax VALUES LESS THAN MAXVALUE
+);
+
+-- Partitions moved to cold storage by ActivityArchiver
+CREATE TABLE IF NOT EXISTS user_activity_archives (
+    partition_name VARCHAR(16) PRIMARY KEY,
+    archived_rows BIGINT NOT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,3 @@
+-- Soft-deleted rows in id order for DeletedActivityPurger. The purge job chunks by primary key through this
+-- index instead of scanning live rows; on InnoDB the primary key columns are appended implicitly.
+CREATE INDEX idx_deleted ON user_activities (is_deleted, id);
@@ -0,0 +1,3 @@
+-- Per-user change counter for timeline ETags, bumped together with active_count on every create, soft delete
+-- and archive run. Existing rows start at 0; the first write after the deploy moves them on.
+ALTER TABLE user_activity_counts ADD COLUMN version BIGINT NOT NULL DEFAULT 0 AFTER active_count;
@@ -0,0 +1,26 @@
+-- Non-deleted activities per user, activity type and hour/day of created_at, for the stats endpoint.
+-- The application updates it in the same transaction as each create and soft delete. Run the backfill
+-- before deploying the version that maintains the rollups (or with writes stopped); re-running it also
+-- repairs drifted buckets. Months already archived are not in user_activities and are not backfilled.
+CREATE TABLE IF NOT EXISTS user_activity_rollups (
+    user_id BIGINT NOT NULL,
+    granularity VARCHAR(8) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    activity_type VARCHAR(50) NOT NULL,
+    activity_count BIGINT NOT NULL,
+    PRIMARY KEY (user_id, granularity, bucket_start, activity_type)
+);
+
+INSERT INTO user_activity_rollups (user_id, granularity, bucket_start, activity_type, activity_count)
+SELECT user_id, 'HOUR', DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00'), activity_type, COUNT(*)
+FROM user_activities
+WHERE is_deleted = FALSE
+GROUP BY user_id, DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00'), activity_type
+ON DUPLICATE KEY UPDATE activity_count = VALUES(activity_count);
+
+INSERT INTO user_activity_rollups (user_id, granularity, bucket_start, activity_type, activity_count)
+SELECT user_id, 'DAY', DATE(created_at), activity_type, COUNT(*)
+FROM user_activities
+WHERE is_deleted = FALSE
+GROUP BY user_id, DATE(created_at), activity_type
+ON DUPLICATE KEY UPDATE activity_count = VALUES(activity_count);
@@ -0,0 +1,4 @@
+-- Timeline and export reads filtered by activity type (types=...): equality on user_id, activity_type and
+-- is_deleted leaves created_at/id in index order, so a one-type page reads only matching rows and needs no
+-- filesort; from/to become a range on created_at. Unfiltered and from/to-only reads keep using idx_user_timeline.
+CREATE INDEX idx_user_type_timeline ON user_activities (user_id, activity_type, is_deleted, created_at DESC, id DESC);
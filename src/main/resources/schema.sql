@@ -1,13 +1,73 @@
+-- Stable codes of ActivityType, stored in the activity_type columns below. New types get the next code here and
+-- in the enum; codes are never renumbered or reused.
+CREATE TABLE IF NOT EXISTS activity_types (
+    code TINYINT PRIMARY KEY,
+    name VARCHAR(50) NOT NULL UNIQUE
+);
+
+INSERT IGNORE INTO activity_types (code, name) VALUES
+    (1, 'LOGIN'), (2, 'LOGOUT'), (3, 'PASSWORD_CHANGE'), (4, 'PROFILE_UPDATE');
+
+-- Monthly RANGE partitions on created_at; ActivityPartitionManager splits future months off pmax.
+-- Partitioning requires created_at in every unique key, hence the (id, created_at) primary key.
 CREATE TABLE IF NOT EXISTS user_activities (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT AUTO_INCREMENT,
     user_id BIGINT NOT NULL,
-    activity_type VARCHAR(50) NOT NULL,
+    activity_type TINYINT NOT NULL,
     description TEXT NOT NULL,
     metadata JSON,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
-    INDEX idx_user_id (user_id),
-    INDEX idx_created_at (created_at)
+    PRIMARY KEY (id, created_at),
+    INDEX idx_user_timeline (user_id, is_deleted, created_at DESC, id DESC),
+    INDEX idx_user_type_timeline (user_id, activity_type, is_deleted, created_at DESC, id DESC),
+    INDEX idx_created_at (created_at),
+    INDEX idx_deleted (is_deleted, id)
+)
+PARTITION BY RANGE (UNIX_TIMESTAMP(created_at)) (
+    PARTITION pmax VALUES LESS THAN MAXVALUE
+);
+
+
+-- Hibernate sequence emulation for user_activities.id (pooled, allocationSize = 50)
+CREATE TABLE IF NOT EXISTS user_activities_seq (
+    next_val BIGINT
 );
 
+INSERT INTO user_activities_seq (next_val)
+SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM user_activities_seq);
+
+-- Non-deleted activities per user, kept current by every create and soft delete
+CREATE TABLE IF NOT EXISTS user_activity_counts (
+    user_id BIGINT PRIMARY KEY,
+    active_count BIGINT NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Non-deleted activities per user, type and hour/day bucket, kept current by every create and soft delete
+CREATE TABLE IF NOT EXISTS user_activity_rollups (
+    user_id BIGINT NOT NULL,
+    granularity VARCHAR(8) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    activity_type TINYINT NOT NULL,
+    activity_count BIGINT NOT NULL,
+    PRIMARY KEY (user_id, granularity, bucket_start, activity_type)
+);
+
+-- Write-ahead log records already stored, so a replay after a crash does not store them twice; rows live only
+-- until the log checkpoint passes their records
+CREATE TABLE IF NOT EXISTS ingested_activities (
+    correlation_id VARCHAR(255) NOT NULL,
+    accepted_at TIMESTAMP(6) NOT NULL,
+    activity_id BIGINT NOT NULL,
+    PRIMARY KEY (correlation_id, accepted_at)
+);
+
+-- Partitions moved to cold storage by ActivityArchiver
+CREATE TABLE IF NOT EXISTS user_activity_archives (
+    partition_name VARCHAR(16) PRIMARY KEY,
+    archived_rows BIGINT NOT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,175 @@
+package com.useractivity.archive;
+
+import com.useractivity.dto.CreateActivityRequest;
+import com.useractivity.entity.UserActivity;
+import com.useractivity.enums.ActivityType;
+import com.useractivity.enums.ExportFormat;
+import com.useractivity.repository.ActivityFilter;
+import com.useractivity.service.ActivityExportService;
+import com.useractivity.service.UserActivityService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.archive.directory=target/archive-test")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ActivityArchiveExportTest {
+
+    private static final Path ARCHIVE_DIRECTORY = Path.of("target/archive-test");
+
+    @Autowired
+    private ActivityArchiveStore archiveStore;
+
+    @Autowired
+    private ActivityExportService exportService;
+
+    @Autowired
+    private UserActivityService activityService;
+
+    @BeforeAll
+    void archiveTwoMonths() throws Exception {
+        FileSystemUtils.deleteRecursively(ARCHIVE_DIRECTORY);
+        // Newest first, as the archiver reads a partition
+        Map<YearMonth, Long> written = archiveStore.write("p202403", List.of(
+                archived(9_000_003L, 702L, LocalDateTime.of(2024, 3, 20, 8, 0)),
+                archived(9_000_002L, 703L, LocalDateTime.of(2024, 3, 2, 8, 0)),
+                archived(9_000_001L, 702L, LocalDateTime.of(2024, 2, 10, 8, 0))).iterator());
+        assertEquals(Map.of(YearMonth.of(2024, 3), 2L, YearMonth.of(2024, 2), 1L), written);
+    }
+
+    @AfterAll
+    void removeArchive() throws Exception {
+        FileSystemUtils.deleteRecursively(ARCHIVE_DIRECTORY);
+    }
+
+    @Test
+    void exportAppendsArchivedMonthsAfterLiveRows() throws Exception {
+        Long liveId = activityService.createActivity(702L,
+                new CreateActivityRequest(ActivityType.LOGIN, "Still in the table", null)).getId();
+
+        List<String> lines = export(702L, null, null);
+
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).contains("\"id\":" + liveId));
+        assertTrue(lines.get(1).contains("\"id\":9000003"));
+        assertTrue(lines.get(2).contains("\"id\":9000001"));
+        assertTrue(lines.get(2).contains("\"createdAt\":\"2024-02-10T08:00:00Z\""));
+    }
+
+    @Test
+    void exportWindowSelectsArchivedRows() throws Exception {
+        List<String> lines = export(null, LocalDateTime.of(2024, 3, 1, 0, 0), LocalDateTime.of(2024, 4, 1, 0, 0));
+
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"id\":9000003"));
+        assertTrue(lines.get(1).contains("\"id\":9000002"));
+    }
+
+    @Test
+    void singleUserReadOpensOnlyItsBucket() throws Exception {
+        archiveStore.write("p202312", List.of(archived(9_000_011L, 704L, LocalDateTime.of(2023, 12, 5, 8, 0))).iterator());
+        // Not gzip: any read of user 705's bucket fails
+        Path otherBucket = ARCHIVE_DIRECTORY.resolve("user_activities-2023-12-u01.ndjson.gz");
+        Files.writeString(otherBucket, "not an archive");
+        try (Stream<UserActivity> rows = archiveStore.read(704L, ActivityFilter.of(null, null, null))) {
+            assertEquals(List.of(9_000_011L), rows.map(UserActivity::getId).toList());
+        } finally {
+            Files.delete(otherBucket);
+        }
+    }
+
+    @Test
+    void fileFromBeforeTheSplitIsMergedWithoutDuplicates() throws Exception {
+        archiveStore.write("p202311", List.of(archived(9_000_023L, 707L, LocalDateTime.of(2023, 11, 15, 8, 0))).iterator());
+        // As left by a run that crashed after renaming the bucket files; merged newest first with them
+        Path preSplit = ARCHIVE_DIRECTORY.resolve("user_activities-2023-11.ndjson.gz");
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(preSplit)),
+                StandardCharsets.UTF_8)) {
+            writer.write(line(9_000_022L, 706L, "2023-11-20T08:00:00Z"));
+            writer.write(line(9_000_021L, 707L, "2023-11-10T08:00:00Z"));
+        }
+        try (Stream<UserActivity> rows = archiveStore.read(null, novemberOnly())) {
+            assertEquals(List.of(9_000_022L, 9_000_023L, 9_000_021L), rows.map(UserActivity::getId).toList());
+        }
+        try (Stream<UserActivity> rows = archiveStore.read(707L, novemberOnly())) {
+            assertEquals(List.of(9_000_023L, 9_000_021L), rows.map(UserActivity::getId).toList());
+        }
+
+        // A rerun writes the partition again; the pre-split file is not its own and stays, its rows come out once
+        archiveStore.write("p202311", List.of(
+                archived(9_000_022L, 706L, LocalDateTime.of(2023, 11, 20, 8, 0)),
+                archived(9_000_023L, 707L, LocalDateTime.of(2023, 11, 15, 8, 0)),
+                archived(9_000_021L, 707L, LocalDateTime.of(2023, 11, 10, 8, 0))).iterator());
+        assertTrue(Files.exists(preSplit));
+        try (Stream<UserActivity> rows = archiveStore.read(null, novemberOnly())) {
+            assertEquals(List.of(9_000_022L, 9_000_023L, 9_000_021L), rows.map(UserActivity::getId).toList());
+        }
+    }
+
+    @Test
+    void partitionArchivedAgainKeepsOtherPartitionsFilesOfTheMonth() throws Exception {
+        // A row of the following partition that lands in August, e.g. one read with a shifted time zone
+        archiveStore.write("p202309", List.of(archived(9_000_032L, 708L, LocalDateTime.of(2023, 8, 31, 23, 30))).iterator());
+        archiveStore.write("p202308", List.of(
+                archived(9_000_031L, 708L, LocalDateTime.of(2023, 8, 25, 8, 0)),
+                archived(9_000_030L, 709L, LocalDateTime.of(2023, 8, 20, 8, 0))).iterator());
+        Path ownFile = ARCHIVE_DIRECTORY.resolve("user_activities-2023-08-p202308-u05.ndjson.gz");
+        assertTrue(Files.exists(ownFile));
+
+        // Rerun without user 709's row: only that file of p202308 goes, p202309's August file stays
+        archiveStore.write("p202308", List.of(archived(9_000_031L, 708L, LocalDateTime.of(2023, 8, 25, 8, 0))).iterator());
+        assertFalse(Files.exists(ownFile));
+        try (Stream<UserActivity> rows = archiveStore.read(null, ActivityFilter.of(
+                LocalDateTime.of(2023, 8, 1, 0, 0), LocalDateTime.of(2023, 9, 1, 0, 0), null))) {
+            assertEquals(List.of(9_000_032L, 9_000_031L), rows.map(UserActivity::getId).toList());
+        }
+    }
+
+    private static ActivityFilter novemberOnly() {
+        return ActivityFilter.of(LocalDateTime.of(2023, 11, 1, 0, 0), LocalDateTime.of(2023, 12, 1, 0, 0), null);
+    }
+
+    private static String line(long id, long userId, String createdAt) {
+        return "{\"id\":" + id + ",\"userId\":" + userId + ",\"activityType\":\"LOGIN\"," +
+                "\"description\":\"archived\",\"metadata\":null,\"createdAt\":\"" + createdAt + "\"}\n";
+    }
+
+    private List<String> export(Long userId, LocalDateTime from, LocalDateTime to) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(userId, ActivityFilter.of(from, to, null), ExportFormat.NDJSON, out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private static UserActivity archived(long id, long userId, LocalDateTime createdAt) {
+        return UserActivity.builder()
+                .id(id)
+                .userId(userId)
+                .activityType("LOGIN")
+                .description("archived")
+                .metadata("{\"ip\":\"10.0.0.1\"}")
+                .createdAt(createdAt)
+                .isDeleted(false)
+                .build();
+    }
+}
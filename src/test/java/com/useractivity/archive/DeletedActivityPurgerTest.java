@@ -0,0 +1,72 @@
+package com.useractivity.archive;
+
+import com.useractivity.dto.CreateActivityRequest;
+import com.useractivity.enums.ActivityType;
+import com.useractivity.repository.UserActivityRepository;
+import com.useractivity.service.UserActivityService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.purge.enabled=false",
+        "app.purge.grace-period-days=30",
+        "app.purge.batch-size=2"
+})
+@ActiveProfiles("test")
+class DeletedActivityPurgerTest {
+
+    @Autowired
+    private DeletedActivityPurger purger;
+
+    @Autowired
+    private UserActivityService activityService;
+
+    @Autowired
+    private UserActivityRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void purgesOnlyRowsDeletedBeforeTheGracePeriod() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            ids.add(activityService.createActivity(801L,
+                    new CreateActivityRequest(ActivityType.LOGIN, "purge candidate " + i, null)).getId());
+        }
+        // 0-2 deleted long ago, 3 deleted just now, 4-5 live
+        for (int i = 0; i < 4; i++) {
+            activityService.deleteActivity(ids.get(i));
+        }
+        Timestamp longAgo = Timestamp.valueOf(LocalDateTime.now().minusDays(31));
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update("UPDATE user_activities SET updated_at = ? WHERE id = ?", longAgo, ids.get(i));
+        }
+        double purgedBefore = meterRegistry.counter("useractivity.purge.rows").count();
+
+        long purged = purger.purge();
+
+        assertTrue(purged >= 3, "purged " + purged);
+        for (int i = 0; i < 3; i++) {
+            assertFalse(repository.existsById(ids.get(i)), "deleted long ago: " + i);
+        }
+        for (int i = 3; i < 6; i++) {
+            assertTrue(repository.existsById(ids.get(i)), "within grace period or live: " + i);
+        }
+        assertEquals(purged, meterRegistry.counter("useractivity.purge.rows").count() - purgedBefore);
+    }
+}
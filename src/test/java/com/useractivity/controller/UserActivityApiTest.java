@@ -0,0 +1,632 @@
+package com.useractivity.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import com.useractivity.cbor.CborConfig;
+import com.useractivity.dto.ActivityResponse;
+import com.useractivity.dto.BatchCreateActivityItem;
+import com.useractivity.dto.BatchCreateResponse;
+import com.useractivity.dto.CreateActivityRequest;
+import com.useractivity.dto.TimelineResponse;
+import com.useractivity.enums.ActivityType;
+import com.useractivity.repository.UserActivityRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Slf4j
+class UserActivityApiTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserActivityRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void timelineCursorAPITest() throws Exception {
+        log.info("\nTimelineCursorAPITest call ..........!");
+        for (int i = 0; i < 3; i++) {
+            CreateActivityRequest request = new CreateActivityRequest(
+                    ActivityType.LOGIN,
+                    "Cursor login " + i,
+                    null
+            );
+            mockMvc.perform(post("/api/v1/users/136/activities")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated());
+        }
+
+        // Act: first page in cursor mode, then follow nextCursor
+        String firstPageJson = mockMvc.perform(get("/api/v1/users/136/activities/timeline")
+                        .param("size", "2")
+                        .param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").exists())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        TimelineResponse firstPage = objectMapper.readValue(firstPageJson, TimelineResponse.class);
+        assertEquals(2, firstPage.getActivities().size());
+
+        String secondPageJson = mockMvc.perform(get("/api/v1/users/136/activities/timeline")
+                        .param("size", "2")
+                        .param("cursor", firstPage.getNextCursor()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        TimelineResponse secondPage = objectMapper.readValue(secondPageJson, TimelineResponse.class);
+
+        // Assert: pages do not overlap and are ordered newest first
+        assertFalse(secondPage.getActivities().isEmpty());
+        Long lastOfFirst = firstPage.getActivities().get(1).getId();
+        secondPage.getActivities().forEach(activity -> assertTrue(activity.getId() < lastOfFirst));
+
+        mockMvc.perform(get("/api/v1/users/136/activities/timeline")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        log.info("TimelineCursorAPITest call ENDED.....!");
+    }
+
+    @Test
+    void batchCreateAPITest() throws Exception {
+        log.info("\nBatchCreateAPITest call ..........!");
+
+        long initialCount = repository.count();
+        List<BatchCreateActivityItem> items = List.of(
+                new BatchCreateActivityItem(301L, ActivityType.LOGIN, "Gateway login", "{\"ip\":\"10.0.0.1\"}"),
+                new BatchCreateActivityItem(302L, ActivityType.LOGOUT, "Gateway logout", null),
+                new BatchCreateActivityItem(303L, ActivityType.LOGIN, " ", "{not json")
+        );
+
+        mockMvc.perform(post("/api/v1/activities:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.received").value(3))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].activity.id").exists())
+                .andExpect(jsonPath("$.results[2].status").value("REJECTED"))
+                .andExpect(jsonPath("$.results[2].errors.length()").value(2));
+
+        assertEquals(initialCount + 2, repository.count(), "Only valid batch items should be saved");
+
+        log.info("BatchCreateAPITest call ENDED.....!");
+    }
+
+    @Test
+    void batchDeleteAPITest() throws Exception {
+        log.info("\nBatchDeleteAPITest call ..........!");
+
+        List<BatchCreateActivityItem> items = List.of(
+                new BatchCreateActivityItem(311L, ActivityType.LOGIN, "Gateway login", null),
+                new BatchCreateActivityItem(312L, ActivityType.LOGOUT, "Gateway logout", null),
+                new BatchCreateActivityItem(311L, ActivityType.LOGOUT, "Gateway logout", null)
+        );
+        String createJson = mockMvc.perform(post("/api/v1/activities:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        List<Long> ids = objectMapper.readValue(createJson, BatchCreateResponse.class).getResults().stream()
+                .map(result -> result.getActivity().getId())
+                .toList();
+
+        mockMvc.perform(delete("/api/v1/activities/" + ids.get(2)))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(post("/api/v1/activities:batchDelete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(ids.get(0), ids.get(1), ids.get(0), ids.get(2), Long.MAX_VALUE))))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.received").value(4))
+                .andExpect(jsonPath("$.deleted").value(2))
+                .andExpect(jsonPath("$.results[0].status").value("DELETED"))
+                .andExpect(jsonPath("$.results[1].status").value("DELETED"))
+                .andExpect(jsonPath("$.results[2].status").value("ALREADY_DELETED"))
+                .andExpect(jsonPath("$.results[3].status").value("NOT_FOUND"));
+
+        ids.forEach(id -> assertTrue(repository.findById(id).get().getIsDeleted()));
+        mockMvc.perform(get("/api/v1/users/311/activities/timeline"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.activities.length()").value(0))
+                .andExpect(jsonPath("$.totalElements").value(0));
+
+        mockMvc.perform(post("/api/v1/activities:batchDelete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        log.info("BatchDeleteAPITest call ENDED.....!");
+    }
+
+    @Test
+    void cborAPITest() throws Exception {
+        log.info("\nCborAPITest call ..........!");
+        ObjectMapper cborMapper = CborConfig.objectMapper();
+
+        // activityType as its stored code in the request too: 1 = LOGIN, 2 = LOGOUT
+        byte[] batch = cborMapper.writeValueAsBytes(List.of(
+                Map.of("userId", 321, "activityType", 1, "description", "CBOR login"),
+                Map.of("userId", 321, "activityType", 2, "description", "CBOR logout")));
+        byte[] created = mockMvc.perform(post("/api/v1/activities:batch")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(batch))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        assertEquals(2, cborMapper.readTree(created).get("created").asInt());
+        // 0 was LOGIN's ordinal but is no code
+        mockMvc.perform(post("/api/v1/activities:batch")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(List.of(
+                                Map.of("userId", 321, "activityType", 0, "description", "Ordinal")))))
+                .andExpect(status().isBadRequest());
+
+        byte[] timeline = mockMvc.perform(get("/api/v1/users/321/activities/timeline")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        JsonNode newest = cborMapper.readTree(timeline).get("activities").get(0);
+        assertEquals(ActivityType.LOGOUT.getCode(), newest.get("activityType").asInt());
+        assertTrue(newest.get("createdAt").isIntegralNumber(), "createdAt should be epoch millis: " + newest);
+        assertTrue(Math.abs(System.currentTimeMillis() - newest.get("createdAt").asLong()) < 60_000);
+
+        MvcResult export = mockMvc.perform(get("/api/v1/users/321/activities/export").param("format", "cbor"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] sequence = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/cbor-seq"))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        List<JsonNode> rows = cborMapper.readerFor(JsonNode.class).<JsonNode>readValues(sequence).readAll();
+        assertEquals(2, rows.size());
+        assertEquals(newest.get("id").asLong(), rows.get(0).get("id").asLong());
+        assertEquals(newest.get("createdAt").asLong(), rows.get(0).get("createdAt").asLong());
+
+        log.info("CborAPITest call ENDED.....!");
+    }
+
+    @Test
+    void timelineETagAPITest() throws Exception {
+        log.info("\nTimelineETagAPITest call ..........!");
+        String create = objectMapper.writeValueAsString(new CreateActivityRequest(ActivityType.LOGIN, "Polled login", null));
+        mockMvc.perform(post("/api/v1/users/322/activities").contentType(MediaType.APPLICATION_JSON).content(create))
+                .andExpect(status().isCreated());
+
+        String eTag = mockMvc.perform(get("/api/v1/users/322/activities/timeline"))
+                .andExpect(status().isOk())
+                // Changed within the last two seconds: no date a later write in the same second could repeat
+                .andExpect(header().doesNotExist("Last-Modified"))
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+        assertNotNull(eTag);
+
+        // Unchanged timeline: 304 without a body
+        mockMvc.perform(get("/api/v1/users/322/activities/timeline").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(content().string(""));
+        // Another encoding of the same page is a different representation
+        mockMvc.perform(get("/api/v1/users/322/activities/timeline")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk());
+        // Validation still comes first
+        mockMvc.perform(get("/api/v1/users/322/activities/timeline")
+                        .param("totals", "approximate")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/v1/users/322/activities").contentType(MediaType.APPLICATION_JSON).content(create))
+                .andExpect(status().isCreated());
+        String changed = mockMvc.perform(get("/api/v1/users/322/activities/timeline").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.activities.length()").value(2))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+        assertNotEquals(eTag, changed);
+
+        log.info("TimelineETagAPITest call ENDED.....!");
+    }
+
+    @Test
+    void timelineLastModifiedAPITest() throws Exception {
+        log.info("\nTimelineLastModifiedAPITest call ..........!");
+        LocalDateTime beforeWrite = LocalDateTime.now().withNano(0);
+        mockMvc.perform(post("/api/v1/users/326/activities")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateActivityRequest(
+                                ActivityType.LOGIN, "Dated login", null))))
+                .andExpect(status().isCreated());
+        // Written from the application clock, whatever the database session's zone
+        LocalDateTime updatedAt = jdbcTemplate.queryForObject(
+                "SELECT updated_at FROM user_activity_counts WHERE user_id = 326", LocalDateTime.class);
+        assertFalse(updatedAt.isBefore(beforeWrite), "updated_at " + updatedAt + " before " + beforeWrite);
+        assertFalse(updatedAt.isAfter(LocalDateTime.now()), "updated_at " + updatedAt + " in the future");
+
+        // Changed in the current second: another write could still carry the same updated_at
+        LocalDateTime thisSecond = LocalDateTime.now().withNano(0);
+        jdbcTemplate.update("UPDATE user_activity_counts SET updated_at = ? WHERE user_id = 326", thisSecond);
+        mockMvc.perform(get("/api/v1/users/326/activities/timeline").header("If-Modified-Since", httpDate(thisSecond)))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Last-Modified"));
+
+        LocalDateTime aMinuteAgo = thisSecond.minusMinutes(1);
+        jdbcTemplate.update("UPDATE user_activity_counts SET updated_at = ? WHERE user_id = 326", aMinuteAgo);
+        String lastModified = mockMvc.perform(get("/api/v1/users/326/activities/timeline"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader("Last-Modified");
+        assertNotNull(lastModified);
+        mockMvc.perform(get("/api/v1/users/326/activities/timeline").header("If-Modified-Since", lastModified))
+                .andExpect(status().isNotModified());
+
+        log.info("TimelineLastModifiedAPITest call ENDED.....!");
+    }
+
+    private static String httpDate(LocalDateTime local) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(local.atZone(ZoneId.systemDefault()));
+    }
+
+    @Test
+    void timelineFiltersAPITest() throws Exception {
+        log.info("\nTimelineFiltersAPITest call ..........!");
+        for (ActivityType type : List.of(ActivityType.LOGIN, ActivityType.PASSWORD_CHANGE, ActivityType.LOGOUT,
+                ActivityType.PASSWORD_CHANGE)) {
+            mockMvc.perform(post("/api/v1/users/325/activities")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new CreateActivityRequest(type, "Filtered", null))))
+                    .andExpect(status().isCreated());
+        }
+        String from = LocalDateTime.now().minusHours(1).toString();
+
+        mockMvc.perform(get("/api/v1/users/325/activities/timeline")
+                        .param("types", "password_change").param("from", from).param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.activities.length()").value(1))
+                .andExpect(jsonPath("$.activities[0].activityType").value("PASSWORD_CHANGE"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+        mockMvc.perform(get("/api/v1/users/325/activities/timeline")
+                        .param("types", "LOGIN,LOGOUT").param("totals", "exact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.activities[0].activityType").value("LOGOUT"))
+                .andExpect(jsonPath("$.activities[1].activityType").value("LOGIN"));
+        String cursor = JsonPath.read(mockMvc.perform(get("/api/v1/users/325/activities/timeline")
+                        .param("types", "PASSWORD_CHANGE").param("cursor", "").param("size", "1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), "$.nextCursor");
+        mockMvc.perform(get("/api/v1/users/325/activities/timeline")
+                        .param("types", "PASSWORD_CHANGE").param("cursor", cursor).param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.activities[0].activityType").value("PASSWORD_CHANGE"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        mockMvc.perform(get("/api/v1/users/325/activities/timeline").param("to", from))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.activities.length()").value(0));
+
+        MvcResult export = mockMvc.perform(get("/api/v1/users/325/activities/export").param("types", "LOGIN"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String ndjson = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(1, ndjson.lines().count());
+        assertTrue(ndjson.contains("\"activityType\":\"LOGIN\""));
+
+        mockMvc.perform(get("/api/v1/users/325/activities/timeline").param("types", "SIGNUP"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/users/325/activities/timeline").param("from", from).param("to", from))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/users/325/activities/export").param("types", "SIGNUP"))
+                .andExpect(status().isBadRequest());
+
+        log.info("TimelineFiltersAPITest call ENDED.....!");
+    }
+
+    @Test
+    void activityStatsAPITest() throws Exception {
+        log.info("\nActivityStatsAPITest call ..........!");
+        List<ActivityType> types = List.of(ActivityType.LOGIN, ActivityType.LOGIN, ActivityType.LOGOUT);
+        Long loginId = null;
+        for (ActivityType type : types) {
+            String created = mockMvc.perform(post("/api/v1/users/324/activities")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new CreateActivityRequest(type, "Counted", null))))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            loginId = loginId != null ? loginId : objectMapper.readValue(created, ActivityResponse.class).getId();
+        }
+        mockMvc.perform(delete("/api/v1/activities/" + loginId)).andExpect(status().isNoContent());
+
+        LocalDateTime now = LocalDateTime.now();
+        String from = now.minusDays(1).toString();
+        String to = now.plusDays(1).toString();
+        mockMvc.perform(get("/api/v1/users/324/activities/stats").param("from", from).param("to", to))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granularity").value("day"))
+                .andExpect(jsonPath("$.from").value(now.minusDays(1).toLocalDate() + "T00:00:00"))
+                .andExpect(jsonPath("$.totals.LOGIN").value(1))
+                .andExpect(jsonPath("$.totals.LOGOUT").value(1))
+                .andExpect(jsonPath("$.buckets[0].count").value(1));
+        mockMvc.perform(get("/api/v1/users/324/activities/stats")
+                        .param("from", from).param("to", to)
+                        .param("granularity", "hour")
+                        .param("types", "logout"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totals.LOGIN").doesNotExist())
+                .andExpect(jsonPath("$.totals.LOGOUT").value(1))
+                .andExpect(jsonPath("$.buckets.length()").value(1));
+
+        mockMvc.perform(get("/api/v1/users/324/activities/stats").param("from", from).param("to", to)
+                        .param("granularity", "minute"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/users/324/activities/stats").param("from", from).param("to", to)
+                        .param("types", "SIGNUP"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(startsWith("Invalid activityType")));
+        mockMvc.perform(get("/api/v1/users/324/activities/stats").param("from", from)
+                        .param("to", now.plusYears(1).toString()).param("granularity", "hour"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/users/324/activities/stats").param("from", to).param("to", from))
+                .andExpect(status().isBadRequest());
+
+        log.info("ActivityStatsAPITest call ENDED.....!");
+    }
+
+    @Test
+    void timelineCacheFollowsWritesAPITest() throws Exception {
+        log.info("\nTimelineCacheFollowsWritesAPITest call ..........!");
+        CreateActivityRequest request = new CreateActivityRequest(ActivityType.LOGIN, "Cached login", null);
+        mockMvc.perform(post("/api/v1/users/137/activities")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        // First read loads the cache, the following writes must show up without waiting for the TTL
+        mockMvc.perform(get("/api/v1/users/137/activities/timeline"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        String createdJson = mockMvc.perform(post("/api/v1/users/137/activities")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        Long createdId = objectMapper.readValue(createdJson, ActivityResponse.class).getId();
+
+        mockMvc.perform(get("/api/v1/users/137/activities/timeline"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.activities[0].id").value(createdId));
+
+        mockMvc.perform(delete("/api/v1/activities/" + createdId))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/v1/users/137/activities/timeline"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.activities.length()").value(1));
+
+        log.info("TimelineCacheFollowsWritesAPITest call ENDED.....!");
+    }
+
+    @Test
+    void timelineCacheFollowsOtherInstancesAPITest() throws Exception {
+        log.info("\nTimelineCacheFollowsOtherInstancesAPITest call ..........!");
+        String createdJson = mockMvc.perform(post("/api/v1/users/327/activities")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new CreateActivityRequest(ActivityType.LOGIN, "Deleted elsewhere", null))))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        Long createdId = objectMapper.readValue(createdJson, ActivityResponse.class).getId();
+
+        String eTag = mockMvc.perform(get("/api/v1/users/327/activities/timeline"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.activities.length()").value(1))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        // A delete committed by another instance: this instance's cache never hears of it
+        jdbcTemplate.update("UPDATE user_activities SET is_deleted = TRUE WHERE id = ?", createdId);
+        jdbcTemplate.update("UPDATE user_activity_counts SET active_count = active_count - 1, version = version + 1 " +
+                "WHERE user_id = 327");
+
+        // The new version's tag must not go out with the cached page
+        String newETag = mockMvc.perform(get("/api/v1/users/327/activities/timeline").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.activities.length()").value(0))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+        assertNotEquals(eTag, newETag);
+        mockMvc.perform(get("/api/v1/users/327/activities/timeline").param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.activities.length()").value(0));
+
+        log.info("TimelineCacheFollowsOtherInstancesAPITest call ENDED.....!");
+    }
+
+    @Test
+    void timelineTotalsModesAPITest() throws Exception {
+        log.info("\nTimelineTotalsModesAPITest call ..........!");
+        Long lastId = null;
+        for (int i = 0; i < 3; i++) {
+            CreateActivityRequest request = new CreateActivityRequest(ActivityType.LOGIN, "Counted login " + i, null);
+            String json = mockMvc.perform(post("/api/v1/users/138/activities")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+            lastId = objectMapper.readValue(json, ActivityResponse.class).getId();
+        }
+        mockMvc.perform(delete("/api/v1/activities/" + lastId))
+                .andExpect(status().isNoContent());
+
+        // Counter-backed totals must match the exact COUNT after creates and a soft delete
+        mockMvc.perform(get("/api/v1/users/138/activities/timeline")
+                        .param("page", "1")
+                        .param("size", "1")
+                        .param("totals", "counter"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.totalPages").value(2));
+
+        mockMvc.perform(get("/api/v1/users/138/activities/timeline")
+                        .param("size", "1")
+                        .param("totals", "exact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2));
+
+        mockMvc.perform(get("/api/v1/users/138/activities/timeline")
+                        .param("size", "1")
+                        .param("totals", "none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.hasNext").value(true));
+
+        mockMvc.perform(get("/api/v1/users/138/activities/timeline")
+                        .param("totals", "approximate"))
+                .andExpect(status().isBadRequest());
+
+        log.info("TimelineTotalsModesAPITest call ENDED.....!");
+    }
+
+    @Test
+    void exportAPITest() throws Exception {
+        log.info("\nExportAPITest call ..........!");
+        mockMvc.perform(post("/api/v1/users/139/activities")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateActivityRequest(
+                                ActivityType.LOGIN, "Exported login", "{\"ip\":\"10.0.0.9\"}"))))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/v1/users/139/activities")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateActivityRequest(
+                                ActivityType.LOGOUT, "Exported logout, with a comma", null))))
+                .andExpect(status().isCreated());
+
+        MvcResult ndjson = mockMvc.perform(get("/api/v1/users/139/activities/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String[] lines = mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("LOGOUT", objectMapper.readTree(lines[0]).get("activityType").asText());
+        assertTrue(objectMapper.readTree(lines[1]).get("metadata").asText().contains("10.0.0.9"));
+
+        MvcResult csv = mockMvc.perform(get("/api/v1/users/139/activities/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String csvBody = mockMvc.perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertTrue(csvBody.startsWith("id,userId,activityType,description,metadata,createdAt\n"));
+        assertTrue(csvBody.contains("\"Exported logout, with a comma\""));
+
+        mockMvc.perform(get("/api/v1/activities/export").param("from", "2025-12-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+
+        log.info("ExportAPITest call ENDED.....!");
+    }
+
+    @Test
+    void unknownActivityTypeAPITest() throws Exception {
+        log.info("\nUnknownActivityTypeAPITest call ..........!");
+        mockMvc.perform(post("/api/v1/users/324/activities")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateActivityRequest(
+                                ActivityType.LOGIN, "From a newer version", null))))
+                .andExpect(status().isCreated());
+        // As if written by a newer version, with a type code this version does not know
+        jdbcTemplate.update("UPDATE user_activities SET activity_type = 9 WHERE user_id = 324");
+
+        mockMvc.perform(get("/api/v1/users/324/activities/timeline"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.activities[0].activityType").value(ActivityType.UNKNOWN));
+
+        MvcResult ndjson = mockMvc.perform(get("/api/v1/users/324/activities/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String line = mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertEquals(ActivityType.UNKNOWN, objectMapper.readTree(line).get("activityType").asText());
+
+        // Only the response name: it cannot be stored or filtered on
+        mockMvc.perform(post("/api/v1/users/324/activities")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"activityType\":\"UNKNOWN\",\"description\":\"Unknown\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/users/324/activities/timeline").param("types", "UNKNOWN"))
+                .andExpect(status().isBadRequest());
+
+        log.info("UnknownActivityTypeAPITest call ENDED.....!");
+    }
+}
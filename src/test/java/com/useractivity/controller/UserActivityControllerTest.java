@@ -160,6 +160,11 @@ class UserActivityControllerTest {
         var deletedActivity = repository.findById(activityId);
         assertTrue(deletedActivity.isPresent(), "Activity should still exist after soft delete");
         assertEquals(true, deletedActivity.get().getIsDeleted(), "Activity should be marked as deleted");
+
+        mockMvc.perform(delete("/api/v1/activities/" + activityId))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(delete("/api/v1/activities/" + Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
         
         log.info("✅ Activity soft deleted successfully in MySQL database");
         log.info("deleteActivityAPITest test ENDED.....!");
@@ -214,4 +219,4 @@ class UserActivityControllerTest {
         log.info("✅ Activity Timelines fetched successfully from DB");
         log.info("TimelineAPITest call ENDED.....!");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package com.useractivity.datasource;
+
+import com.useractivity.dto.ActivityResponse;
+import com.useractivity.dto.CreateActivityRequest;
+import com.useractivity.dto.TimelineResponse;
+import com.useractivity.enums.ActivityType;
+import com.useractivity.service.UserActivityService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two independent H2 databases stand in for a primary and a replica that has not caught up yet: rows written
+ * to only one of them show which pool served a read.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.enabled=true",
+        "app.datasource.replica.url=jdbc:h2:mem:replica;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.username=sa",
+        "app.datasource.replica.password=",
+        "app.datasource.replica.read-your-writes-seconds=2",
+        "app.timeline-cache.enabled=false"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReplicaRoutingTest {
+
+    @Autowired
+    private UserActivityService service;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeAll
+    void copySchemaToReplica() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        // Hibernate only creates the schema on the primary
+        primary.queryForList("SCRIPT NODATA", String.class).forEach(replica::execute);
+    }
+
+    @Test
+    void readOnlyTimelineIsServedByReplica() {
+        replica.update("INSERT INTO user_activities (id, user_id, activity_type, description, created_at, " +
+                "updated_at, is_deleted) VALUES (900001, 501, 1, 'replicated', CURRENT_TIMESTAMP, " +
+                "CURRENT_TIMESTAMP, FALSE)");
+
+        TimelineResponse timeline = service.getTimeline(501L, 0, 20, "exact");
+
+        assertEquals(List.of(900001L), ids(timeline));
+        assertEquals(0, countFor(primary, 501L));
+    }
+
+    @Test
+    void writesGoToPrimaryAndReadsFollowThemUntilTheWindowCloses() throws InterruptedException {
+        ActivityResponse created = service.createActivity(502L,
+                new CreateActivityRequest(ActivityType.LOGIN, "Written to primary", null));
+
+        assertEquals(1, countFor(primary, 502L));
+        assertEquals(0, countFor(replica, 502L));
+        // Read-your-writes: the replica has not seen the row, the primary answers
+        assertEquals(List.of(created.getId()), ids(service.getTimeline(502L, 0, 20, "exact")));
+        assertEquals(List.of(created.getId()), ids(service.getTimelineByCursor(502L, null, 20)));
+
+        Thread.sleep(2_500);
+
+        // Window over: back on the (still lagging) replica
+        assertEquals(List.of(), ids(service.getTimeline(502L, 0, 20, "exact")));
+    }
+
+    private static List<Long> ids(TimelineResponse timeline) {
+        return timeline.getActivities().stream().map(ActivityResponse::getId).toList();
+    }
+
+    private static int countFor(JdbcTemplate jdbcTemplate, Long userId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_activities WHERE user_id = ?", Integer.class, userId);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,81 @@
+package com.useractivity.ingestion;
+
+import com.useractivity.entity.UserActivity;
+import com.useractivity.enums.ActivityType;
+import com.useractivity.repository.UserActivityRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mockingDetails;
+
+@SpringBootTest(properties = {
+        "app.ingestion.async.enabled=true",
+        "app.ingestion.async.durable=false",
+        "app.ingestion.async.writer-threads=1",
+        "app.ingestion.async.flush-interval-ms=200",
+        "app.ingestion.async.retry-backoff-ms=20"
+})
+@ActiveProfiles("test")
+class ActivityIngestionPipelineTest {
+
+    private static final long USER = 941L;
+
+    @Autowired
+    private ActivityIngestionPipeline pipeline;
+
+    @SpyBean
+    private UserActivityRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void failedFlushIsRetriedUntilTheDatabaseRecovers() throws InterruptedException {
+        double retriesBefore = meterRegistry.counter("useractivity.ingestion.flush.retries").count();
+        double failedBefore = meterRegistry.counter("useractivity.ingestion.activities", "outcome", "failed").count();
+        // A spied repository proxy has no real method to call: recovered calls go through the spy's default answer
+        Answer<?> recovered = mockingDetails(repository).getMockCreationSettings().getDefaultAnswer();
+        doThrow(new DataAccessResourceFailureException("Connection refused"))
+                .doAnswer(recovered)
+                .when(repository).saveAll(any());
+
+        for (int i = 0; i < 3; i++) {
+            pipeline.submit(new PendingActivity("retry-" + i, UserActivity.builder()
+                    .userId(USER)
+                    .activityType(ActivityType.LOGIN.name())
+                    .description("queued " + i)
+                    .createdAt(LocalDateTime.now())
+                    .build()));
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (rowsOf(USER) < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(3, rowsOf(USER));
+        assertEquals(1, meterRegistry.counter("useractivity.ingestion.flush.retries").count() - retriesBefore);
+        assertEquals(0, meterRegistry.counter("useractivity.ingestion.activities", "outcome", "failed").count()
+                - failedBefore);
+    }
+
+    private int rowsOf(long userId) {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_activities WHERE user_id = ?",
+                Integer.class, userId);
+        return rows == null ? 0 : rows;
+    }
+}
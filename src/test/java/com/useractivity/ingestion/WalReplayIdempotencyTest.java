@@ -0,0 +1,90 @@
+package com.useractivity.ingestion;
+
+import com.useractivity.entity.UserActivity;
+import com.useractivity.enums.ActivityType;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.ingestion.async.enabled=true",
+        "app.ingestion.async.durable=true",
+        "app.ingestion.wal.segment-size-bytes=65536",
+        "app.ingestion.wal.replay-interval-ms=10"
+})
+@ActiveProfiles("test")
+class WalReplayIdempotencyTest {
+
+    private static final long USER = 942L;
+
+    @DynamicPropertySource
+    static void walDirectory(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("wal-replay").toString();
+        registry.add("app.ingestion.wal.directory", () -> directory);
+    }
+
+    @Autowired
+    private WriteAheadLogIngestor ingestor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void recordStoredBeforeACrashIsNotStoredAgain() throws InterruptedException {
+        LocalDateTime acceptedAt = LocalDateTime.now();
+        // As left by a crash after the commit of "stored" but before the checkpoint passed it
+        jdbcTemplate.update("INSERT INTO ingested_activities (correlation_id, accepted_at, activity_id) VALUES (?, ?, ?)",
+                "stored", Timestamp.valueOf(acceptedAt.truncatedTo(ChronoUnit.MICROS)), 1L);
+
+        ingestor.submit(pending("stored", acceptedAt));
+        // Same correlation id, accepted later: a different activity
+        ingestor.submit(pending("stored", acceptedAt.plusNanos(1_000)));
+        ingestor.submit(pending("new", acceptedAt));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ((storedRows() < 2 || remainingKeys() > 0) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(200);
+        assertEquals(2, storedRows());
+        assertEquals(2, meterRegistry.counter("useractivity.ingestion.activities", "outcome", "flushed").count());
+        // Keys are dropped once the checkpoint has passed their records
+        assertEquals(0, remainingKeys());
+    }
+
+    private int storedRows() {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_activities WHERE user_id = ?",
+                Integer.class, USER);
+        return rows == null ? 0 : rows;
+    }
+
+    private int remainingKeys() {
+        Integer keys = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ingested_activities", Integer.class);
+        return keys == null ? 0 : keys;
+    }
+
+    private static PendingActivity pending(String correlationId, LocalDateTime acceptedAt) {
+        return new PendingActivity(correlationId, UserActivity.builder()
+                .userId(USER)
+                .activityType(ActivityType.LOGIN.name())
+                .description("replayed " + correlationId)
+                .createdAt(acceptedAt)
+                .build());
+    }
+}
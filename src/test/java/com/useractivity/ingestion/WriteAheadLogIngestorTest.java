@@ -0,0 +1,209 @@
+package com.useractivity.ingestion;
+
+import com.useractivity.entity.UserActivity;
+import com.useractivity.exception.IngestionQueueFullException;
+import com.useractivity.repository.IngestedActivityRepository;
+import com.useractivity.repository.UserActivityRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WriteAheadLogIngestorTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void submitBeforeStartIsRejected() {
+        WriteAheadLogIngestor ingestor = ingestor();
+
+        assertThrows(IngestionQueueFullException.class, () -> ingestor.submit(pending("early")));
+        assertEquals(1, counter("rejected"));
+        assertEquals(0, meterRegistry.get("useractivity.ingestion.wal.segments").gauge().value());
+    }
+
+    @Test
+    void everySubmitRacingStopIsEitherDurableOrRejected() throws Exception {
+        WriteAheadLogIngestor ingestor = ingestor();
+        ingestor.start();
+
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        CountDownLatch submitting = new CountDownLatch(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int client = 0; client < 8; client++) {
+            results.add(clients.submit(() -> {
+                submitting.countDown();
+                for (int i = 0; ; i++) {
+                    try {
+                        ingestor.submit(pending("race-" + i));
+                    } catch (IngestionQueueFullException e) {
+                        return null;
+                    }
+                }
+            }));
+        }
+        submitting.await();
+        Thread.sleep(50);
+        ingestor.stop();
+        for (Future<?> result : results) {
+            // Anything but a rejection (a write after close, a sync timeout) fails here
+            result.get(10, TimeUnit.SECONDS);
+        }
+        clients.shutdown();
+
+        assertTrue(counter("accepted") > 0);
+        assertEquals(counter("accepted"), counter("flushed") + remainingRecords());
+    }
+
+    @Test
+    void recordThatKeepsFailingIsDeadLetteredAndReplayMovesOn() throws Exception {
+        WriteAheadLogIngestor ingestor = ingestor(transactionsRunningCallbacks(), repositoryRejecting("poison"),
+                databaseUp());
+        ingestor.start();
+        ingestor.submit(pending("ok-1"));
+        ingestor.submit(pending("poison"));
+        ingestor.submit(pending("ok-2"));
+
+        awaitCount("flushed", 2);
+        assertEquals(2, counter("flushed"));
+        assertEquals(1, counter("dead_lettered"));
+        ingestor.stop();
+
+        assertEquals(0, remainingRecords());
+        try (WriteAheadLog deadLetters = WriteAheadLog.open(
+                directory.resolve(WriteAheadLogIngestor.DEAD_LETTER_DIRECTORY), SEGMENT_SIZE)) {
+            List<WalRecord> records = deadLetters.read(deadLetters.getCheckpoint(), deadLetters.getEndPosition(), 10);
+            assertEquals(List.of("poison"), records.stream().map(this::correlationId).toList());
+        }
+    }
+
+    @Test
+    void nothingIsDeadLetteredWhileTheDatabaseIsDown() throws Exception {
+        JdbcTemplate databaseDown = mock(JdbcTemplate.class);
+        when(databaseDown.queryForObject("SELECT 1", Integer.class))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        WriteAheadLogIngestor ingestor = ingestor(transactionsRunningCallbacks(), repositoryRejecting("ok-1"),
+                databaseDown);
+        ingestor.start();
+        ingestor.submit(pending("ok-1"));
+
+        Thread.sleep(500);
+        assertEquals(0, counter("dead_lettered"));
+        ReflectionTestUtils.setField(ingestor, "shutdownTimeoutMs", 100L);
+        ingestor.stop();
+        assertEquals(1, remainingRecords());
+    }
+
+    private WriteAheadLogIngestor ingestor() {
+        // Replay "writes" through a transaction template that never runs the callback
+        return ingestor(mock(TransactionTemplate.class), null, mock(JdbcTemplate.class));
+    }
+
+    private WriteAheadLogIngestor ingestor(TransactionTemplate transactionTemplate, UserActivityRepository repository,
+                                           JdbcTemplate jdbcTemplate) {
+        WriteAheadLogIngestor ingestor = new WriteAheadLogIngestor(repository, mock(IngestedActivityRepository.class),
+                transactionTemplate, meterRegistry, mock(ApplicationEventPublisher.class), jdbcTemplate);
+        ReflectionTestUtils.setField(ingestor, "directory", directory.toString());
+        ReflectionTestUtils.setField(ingestor, "segmentSize", SEGMENT_SIZE);
+        ReflectionTestUtils.setField(ingestor, "maxSegments", 1_000_000);
+        ReflectionTestUtils.setField(ingestor, "groupCommitIntervalMs", 1L);
+        ReflectionTestUtils.setField(ingestor, "syncTimeoutMs", 5_000L);
+        ReflectionTestUtils.setField(ingestor, "replayBatchSize", 100);
+        ReflectionTestUtils.setField(ingestor, "replayIntervalMs", 5L);
+        ReflectionTestUtils.setField(ingestor, "shutdownTimeoutMs", 5_000L);
+        ReflectionTestUtils.setField(ingestor, "maxReplayAttempts", 2);
+        ingestor.init();
+        return ingestor;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TransactionTemplate transactionsRunningCallbacks() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        return transactionTemplate;
+    }
+
+    private static UserActivityRepository repositoryRejecting(String description) {
+        UserActivityRepository repository = mock(UserActivityRepository.class);
+        when(repository.saveAll(any())).thenAnswer(invocation -> {
+            List<UserActivity> activities = invocation.getArgument(0);
+            if (activities.stream().anyMatch(activity -> activity.getDescription().equals(description))) {
+                throw new DataIntegrityViolationException("Value too long for column");
+            }
+            return activities;
+        });
+        return repository;
+    }
+
+    private static JdbcTemplate databaseUp() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject("SELECT 1", Integer.class)).thenReturn(1);
+        return jdbcTemplate;
+    }
+
+    private void awaitCount(String outcome, double expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (counter(outcome) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private String correlationId(WalRecord record) {
+        try {
+            return ActivityRecordCodec.decode(record.getPayload()).getCorrelationId();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long remainingRecords() throws IOException {
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, SEGMENT_SIZE)) {
+            return wal.read(wal.getCheckpoint(), wal.getEndPosition(), Integer.MAX_VALUE).size();
+        }
+    }
+
+    private double counter(String outcome) {
+        return meterRegistry.counter("useractivity.ingestion.activities", "outcome", outcome).count();
+    }
+
+    private static PendingActivity pending(String correlationId) {
+        return new PendingActivity(correlationId, UserActivity.builder()
+                .userId(1L)
+                .activityType("LOGIN")
+                .description(correlationId)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+}
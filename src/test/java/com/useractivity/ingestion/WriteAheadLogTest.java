@@ -0,0 +1,105 @@
+package com.useractivity.ingestion;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    private static final int SEGMENT_SIZE = 256;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsSurviveReopenAndResumeFromCheckpoint() throws IOException {
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < 5; i++) {
+                wal.append(bytes("record-" + i));
+            }
+            wal.force();
+            List<WalRecord> firstTwo = wal.read(wal.getCheckpoint(), wal.getEndPosition(), 2);
+            wal.checkpoint(firstTwo.get(1).getEnd());
+        }
+
+        try (WriteAheadLog reopened = WriteAheadLog.open(directory, SEGMENT_SIZE)) {
+            List<WalRecord> remaining = reopened.read(reopened.getCheckpoint(), reopened.getEndPosition(), 100);
+            assertEquals(List.of("record-2", "record-3", "record-4"), remaining.stream().map(this::text).toList());
+        }
+    }
+
+    @Test
+    void rollsSegmentsAndDeletesCheckpointedOnes() throws IOException {
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, SEGMENT_SIZE)) {
+            // 8 byte header + 92 byte payload: two records per 256 byte segment
+            for (int i = 0; i < 7; i++) {
+                wal.append(bytes(String.format("%-92d", i)));
+            }
+            assertEquals(4, wal.getSegmentCount());
+
+            List<WalRecord> records = wal.read(wal.getCheckpoint(), wal.getEndPosition(), 100);
+            assertEquals(7, records.size());
+            assertEquals("6", text(records.get(6)).trim());
+
+            wal.checkpoint(records.get(4).getEnd());
+            assertEquals(2, wal.getSegmentCount());
+            assertEquals(2, segmentFiles());
+        }
+    }
+
+    @Test
+    void tornTailRecordIsDiscardedOnOpen() throws IOException {
+        Path segment;
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, SEGMENT_SIZE)) {
+            wal.append(bytes("complete"));
+            wal.append(bytes("torn-record"));
+            wal.force();
+            segment = singleSegment();
+        }
+
+        // Corrupt the last payload byte as if the process died mid-write
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long lastByte = WriteAheadLog.HEADER_BYTES * 2L + "complete".length() + "torn-record".length() - 1;
+            file.seek(lastByte);
+            file.write('X');
+        }
+
+        try (WriteAheadLog reopened = WriteAheadLog.open(directory, SEGMENT_SIZE)) {
+            List<WalRecord> records = reopened.read(reopened.getCheckpoint(), reopened.getEndPosition(), 100);
+            assertEquals(List.of("complete"), records.stream().map(this::text).toList());
+
+            reopened.append(bytes("after-recovery"));
+            records = reopened.read(reopened.getCheckpoint(), reopened.getEndPosition(), 100);
+            assertEquals(List.of("complete", "after-recovery"), records.stream().map(this::text).toList());
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String text(WalRecord record) {
+        return new String(record.getPayload(), StandardCharsets.UTF_8);
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".wal")).count();
+        }
+    }
+
+    private Path singleSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".wal")).findFirst().orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.useractivity.metadata;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.useractivity.dto.ActivityResponse;
+import com.useractivity.dto.CreateActivityRequest;
+import com.useractivity.dto.TimelineResponse;
+import com.useractivity.enums.ActivityType;
+import com.useractivity.repository.UserActivityRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "app.metadata.raw-json=true",
+        "app.metadata.max-length=64",
+        "app.metadata.max-depth=3"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MetadataJsonTest {
+
+    private static final long USER = 901L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MetadataValidator validator;
+
+    @Autowired
+    private UserActivityRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterAll
+    void deleteActivities() {
+        repository.deleteAll(repository.findAll().stream().filter(activity -> activity.getUserId() == USER).toList());
+    }
+
+    @Test
+    void validatorChecksSyntaxLengthAndDepth() {
+        validator.validate("{\"a\":[1,{\"b\":null}],\"c\":\"x\"}");
+        validator.validate("\"scalar\"");
+
+        assertEquals("Invalid JSON format in metadata field", assertThrows(IllegalArgumentException.class,
+                () -> validator.validate("{\"a\":1")).getMessage());
+        assertThrows(IllegalArgumentException.class, () -> validator.validate("{} {}"));
+        assertThrows(IllegalArgumentException.class, () -> validator.validate("{\"a\":1} x"));
+        assertTrue(assertThrows(IllegalArgumentException.class,
+                () -> validator.validate("[[[[1]]]]")).getMessage().contains("deeper than 3"));
+        assertTrue(assertThrows(IllegalArgumentException.class,
+                () -> validator.validate("\"" + "x".repeat(64) + "\"")).getMessage().contains("64 characters"));
+    }
+
+    @Test
+    void metadataIsEmbeddedAsJson() throws Exception {
+        mockMvc.perform(post("/api/v1/users/" + USER + "/activities")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateActivityRequest(
+                                ActivityType.LOGIN, "Raw metadata", "{\"ip\":\"10.0.0.7\",\"tags\":[\"a\"]}"))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.metadata.ip").value("10.0.0.7"));
+        mockMvc.perform(post("/api/v1/users/" + USER + "/activities")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateActivityRequest(
+                                ActivityType.LOGOUT, "Too deep", "{\"a\":{\"b\":{\"c\":{}}}}"))))
+                .andExpect(status().isBadRequest());
+
+        // Timeline rows are not checked through the API: H2 stores a bound VARCHAR in a JSON column as a JSON
+        // string literal, where MySQL stores the document itself
+        TimelineResponse timeline = TimelineResponse.builder()
+                .userId(USER)
+                .activities(List.of(ActivityResponse.builder().id(1L).metadata("{\"tags\":[\"a\"]}").build()))
+                .build();
+        assertEquals("a", objectMapper.readTree(objectMapper.writeValueAsString(timeline))
+                .at("/activities/0/metadata/tags/0").asText());
+    }
+}
@@ -0,0 +1,35 @@
+package com.useractivity.repository;
+
+import com.useractivity.enums.ActivityType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ActivityTypeStorageTest {
+
+    private static final List<String> TYPES = List.of("LOGIN", "LOGOUT", "PASSWORD_CHANGE", "PROFILE_UPDATE");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void activityTypeIsStoredAsOneByteCode() {
+        assertEquals("TINYINT", jdbcTemplate.queryForObject("SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS " +
+                "WHERE TABLE_NAME = 'USER_ACTIVITIES' AND COLUMN_NAME = 'ACTIVITY_TYPE'", String.class));
+        for (int i = 0; i < TYPES.size(); i++) {
+            assertEquals(i + 1, ActivityType.valueOf(TYPES.get(i)).getCode());
+        }
+        // A code added by a newer version reads back as its number and is written back unchanged
+        assertEquals("9", ActivityType.nameOf((byte) 9));
+        assertEquals(9, ActivityType.codeOf("9"));
+        assertThrows(IllegalArgumentException.class, () -> ActivityType.codeOf("SIGNUP"));
+    }
+}
@@ -0,0 +1,35 @@
+package com.useractivity.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps the last SQL statement Hibernate sends against user_activities, so query plan tests EXPLAIN exactly what a
+ * repository method runs instead of a hand-written copy of it. Enabled with {@link #PROPERTY}.
+ */
+public class CapturingStatementInspector implements StatementInspector {
+
+    static final String PROPERTY = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+            "com.useractivity.repository.CapturingStatementInspector";
+
+    private static final AtomicReference<String> LAST = new AtomicReference<>();
+
+    @Override
+    public String inspect(String sql) {
+        if (sql.contains("user_activities")) {
+            LAST.set(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * SQL of the last statement against user_activities that {@code query} ran.
+     */
+    static String sqlOf(Runnable query) {
+        LAST.set(null);
+        query.run();
+        return Objects.requireNonNull(LAST.get(), "The query ran no statement against user_activities");
+    }
+}
@@ -0,0 +1,95 @@
+package com.useractivity.repository;
+
+import com.useractivity.dto.ActivityResponse;
+import com.useractivity.entity.UserActivity;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TimelineByMonthTest {
+
+    private static final long USER = 701L;
+
+    @Autowired
+    private UserActivityRepository repository;
+
+    private List<UserActivity> saved;
+
+    @BeforeAll
+    void createActivities() {
+        // Spread over this month, the previous ones and more than a year back, with gaps and same-second ties
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC).withNano(0);
+        int[] monthsAgo = {0, 0, 1, 1, 1, 2, 5, 5, 14, 30};
+        List<UserActivity> activities = new ArrayList<>();
+        for (int i = 0; i < monthsAgo.length; i++) {
+            activities.add(activity(USER, now.minusMonths(monthsAgo[i]).minusSeconds(i % 2), false));
+        }
+        activities.add(activity(USER, now.minusMonths(1), true));
+        activities.add(activity(USER + 1, now, false));
+        saved = repository.saveAll(activities);
+    }
+
+    @AfterAll
+    void deleteActivities() {
+        // Shares the database with the query plan tests, which insert explicit ids
+        repository.deleteAll(saved);
+    }
+
+    @Test
+    void monthByMonthReadsMatchTheSingleQueryTimeline() {
+        for (int monthWindows : new int[]{0, 1, 2, 6}) {
+            for (int pageSize : new int[]{1, 3, 20}) {
+                assertEquals(ids(walk(pageSize, monthWindows, false)), ids(walk(pageSize, monthWindows, true)),
+                        "pageSize=" + pageSize + ", monthWindows=" + monthWindows);
+            }
+        }
+        assertEquals(10, walk(3, 2, true).size());
+    }
+
+    private List<ActivityResponse> walk(int pageSize, int monthWindows, boolean byMonth) {
+        List<ActivityResponse> all = new ArrayList<>();
+        List<ActivityResponse> page;
+        do {
+            ActivityResponse last = all.isEmpty() ? null : all.get(all.size() - 1);
+            if (byMonth) {
+                page = repository.findTimelineByMonth(USER, last == null ? null : last.getCreatedAt(),
+                        last == null ? null : last.getId(), pageSize, monthWindows);
+            } else {
+                page = last == null
+                        ? repository.findTimelineHead(USER, PageRequest.of(0, pageSize))
+                        : repository.findTimelineAfter(USER, last.getCreatedAt(), last.getId(), PageRequest.of(0, pageSize));
+            }
+            all.addAll(page);
+        } while (page.size() == pageSize);
+        return all;
+    }
+
+    private static List<Long> ids(List<ActivityResponse> activities) {
+        return activities.stream().map(ActivityResponse::getId).toList();
+    }
+
+    private static UserActivity activity(long userId, LocalDateTime createdAt, boolean deleted) {
+        return UserActivity.builder()
+                .userId(userId)
+                .activityType("LOGIN")
+                .description("month walk")
+                .createdAt(createdAt)
+                .isDeleted(deleted)
+                .build();
+    }
+}
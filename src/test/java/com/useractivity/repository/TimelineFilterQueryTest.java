@@ -0,0 +1,109 @@
+package com.useractivity.repository;
+
+import com.useractivity.dto.ActivityResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = CapturingStatementInspector.PROPERTY)
+@Slf4j
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TimelineFilterQueryTest {
+
+    private static final int TOTAL_ROWS = 200_000;
+    private static final int USERS = 400;
+    private static final long HOT_USER = 42L;
+
+    private static final List<String> TYPES = List.of("LOGIN", "LOGOUT", "PASSWORD_CHANGE", "PROFILE_UPDATE");
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 1, 3, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2025, 1, 8, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserActivityRepository repository;
+
+    @BeforeAll
+    void loadRows() {
+        // Every 7th row is soft deleted; timestamps interleave users over about nine days; the type code cycles with
+        // id / USERS, so each user has all four
+        long started = System.currentTimeMillis();
+        jdbcTemplate.update("INSERT INTO user_activities " +
+                "(id, user_id, activity_type, description, created_at, updated_at, is_deleted) " +
+                "SELECT x, MOD(x, " + USERS + "), " +
+                "MOD(x / " + USERS + ", 4) + 1, 'bulk', " +
+                "DATEADD('SECOND', MOD(x * 7919, " + TOTAL_ROWS + ") * 4, TIMESTAMP '2025-01-01 00:00:00'), " +
+                "TIMESTAMP '2025-01-01 00:00:00', MOD(x, 7) = 0 " +
+                "FROM SYSTEM_RANGE(1, " + TOTAL_ROWS + ")");
+        jdbcTemplate.execute("ANALYZE");
+        log.info("Loaded {} rows in {} ms", TOTAL_ROWS, System.currentTimeMillis() - started);
+    }
+
+    @AfterAll
+    void clearRows() {
+        jdbcTemplate.execute("TRUNCATE TABLE user_activities");
+    }
+
+    @Test
+    void filteredTimelineQueryReadsTypeIndexInOrder() {
+        ActivityFilter filter = ActivityFilter.of(FROM, TO, List.of("password_change"));
+        String sql = CapturingStatementInspector.sqlOf(
+                () -> repository.findTimeline(HOT_USER, filter, null, null, 0, 20));
+        // Parameters in the order of the generated statement: user, window, type code, offset, limit
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, HOT_USER, FROM, TO, 3, 0, 20);
+        log.info("Filtered timeline plan:\n{}", plan);
+
+        assertNotNull(plan);
+        assertTrue(plan.toLowerCase().contains("idx_user_type_timeline"),
+                "Type filtered timeline should use idx_user_type_timeline: " + plan);
+        assertTrue(plan.contains("index sorted"), "Filtered timeline should not sort in memory: " + plan);
+    }
+
+    @Test
+    void filteredTimelineReturnsOnlyMatchingRows() {
+        ActivityFilter filter = ActivityFilter.of(FROM, TO, List.of("password_change"));
+
+        long matching = repository.countTimeline(HOT_USER, filter);
+        assertTrue(matching > 40, "Fixture should hold more than two pages: " + matching);
+        List<ActivityResponse> rows = new ArrayList<>();
+        ActivityResponse last = null;
+        do {
+            List<ActivityResponse> page = repository.findTimeline(HOT_USER, filter,
+                    last == null ? null : last.getCreatedAt(), last == null ? null : last.getId(), 0, 20);
+            rows.addAll(page);
+            last = page.size() < 20 ? null : page.get(page.size() - 1);
+        } while (last != null);
+
+        assertEquals(matching, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            ActivityResponse current = rows.get(i);
+            // Owner, type and deleted flag follow from the id, see loadRows
+            assertEquals(HOT_USER, current.getId() % USERS);
+            assertNotEquals(0, current.getId() % 7);
+            assertEquals("PASSWORD_CHANGE", TYPES.get((int) (current.getId() / USERS % 4)));
+            assertEquals("PASSWORD_CHANGE", current.getActivityType());
+            assertFalse(current.getCreatedAt().isBefore(FROM));
+            assertTrue(current.getCreatedAt().isBefore(TO));
+            if (i > 0) {
+                assertFalse(current.getCreatedAt().isAfter(rows.get(i - 1).getCreatedAt()), "Timeline must be newest first");
+            }
+        }
+        // The same rows by offset
+        assertEquals(rows.subList(20, 40).stream().map(ActivityResponse::getId).toList(),
+                repository.findTimeline(HOT_USER, filter, null, null, 20, 20).stream().map(ActivityResponse::getId).toList());
+    }
+}
@@ -0,0 +1,82 @@
+package com.useractivity.repository;
+
+import com.useractivity.dto.ActivityResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = CapturingStatementInspector.PROPERTY)
+@Slf4j
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TimelineQueryPlanTest {
+
+    private static final int TOTAL_ROWS = 100_000;
+    private static final int USERS = 1_000;
+    private static final long HOT_USER = 42L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserActivityRepository repository;
+
+    @BeforeAll
+    void loadRows() {
+        // Every 7th row is soft deleted; timestamps interleave users so created_at order differs from id order
+        long started = System.currentTimeMillis();
+        jdbcTemplate.update("INSERT INTO user_activities " +
+                "(id, user_id, activity_type, description, created_at, updated_at, is_deleted) " +
+                "SELECT x, MOD(x, " + USERS + "), " +
+                "MOD(x / " + USERS + ", 4) + 1, 'bulk', " +
+                "DATEADD('SECOND', MOD(x * 7919, " + TOTAL_ROWS + "), TIMESTAMP '2025-01-01 00:00:00'), " +
+                "TIMESTAMP '2025-01-01 00:00:00', MOD(x, 7) = 0 " +
+                "FROM SYSTEM_RANGE(1, " + TOTAL_ROWS + ")");
+        jdbcTemplate.execute("ANALYZE");
+        log.info("Loaded {} rows in {} ms", TOTAL_ROWS, System.currentTimeMillis() - started);
+    }
+
+    @AfterAll
+    void clearRows() {
+        jdbcTemplate.execute("TRUNCATE TABLE user_activities");
+    }
+
+    @Test
+    void timelineQueryReadsCompositeIndexInOrder() {
+        String sql = CapturingStatementInspector.sqlOf(
+                () -> repository.findTimelineHead(HOT_USER, PageRequest.of(0, 20)));
+        // Parameters in the order of the generated statement: user, offset, limit
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, HOT_USER, 0, 20);
+        log.info("Timeline plan:\n{}", plan);
+
+        assertNotNull(plan);
+        assertTrue(plan.toLowerCase().contains("idx_user_timeline"), "Timeline should use idx_user_timeline: " + plan);
+        assertTrue(plan.contains("index sorted"), "Timeline should not sort in memory: " + plan);
+    }
+
+    @Test
+    void timelineHeadReturnsNewestNonDeletedRows() {
+        List<ActivityResponse> page = repository.findTimelineHead(HOT_USER, PageRequest.of(0, 20));
+
+        assertEquals(20, page.size());
+        for (int i = 1; i < page.size(); i++) {
+            ActivityResponse previous = page.get(i - 1);
+            ActivityResponse current = page.get(i);
+            // Owner and deleted flag follow from the id, see loadRows
+            assertEquals(HOT_USER, current.getId() % USERS);
+            assertNotEquals(0, current.getId() % 7);
+            assertFalse(current.getCreatedAt().isAfter(previous.getCreatedAt()), "Timeline must be newest first");
+        }
+    }
+}
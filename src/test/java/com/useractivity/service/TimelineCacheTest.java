@@ -0,0 +1,93 @@
+package com.useractivity.service;
+
+import com.useractivity.dto.ActivityResponse;
+import com.useractivity.entity.UserActivity;
+import com.useractivity.event.ActivitiesArchivedEvent;
+import com.useractivity.event.ActivitiesCreatedEvent;
+import com.useractivity.event.ActivitiesDeletedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimelineCacheTest {
+
+    private final TimelineCache cache = new TimelineCache(new SimpleMeterRegistry());
+
+    @BeforeEach
+    void init() {
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxUsers", 100L);
+        ReflectionTestUtils.setField(cache, "entriesPerUser", 20);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 30L);
+        cache.init();
+    }
+
+    @Test
+    void archivalDropsTheEntriesOfTouchedUsers() {
+        cache.populate(1L, cache.stamp(1L), 1, List.of(activity(11L)), 1);
+        cache.populate(2L, cache.stamp(2L), 1, List.of(activity(21L)), 1);
+        long readBeforeDrop = cache.stamp(1L);
+
+        cache.onArchived(new ActivitiesArchivedEvent(Set.of(1L)));
+
+        assertNull(cache.get(1L));
+        assertNotNull(cache.get(2L));
+        // A read that started before the drop may still hold archived rows
+        cache.populate(1L, readBeforeDrop, 1, List.of(activity(11L)), 1);
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void writeInFlightIsReleasedWhenTheTransactionCompletes() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.onCreating(new ActivitiesCreatedEvent(List.of(UserActivity.builder().id(11L).userId(1L).build())));
+            assertEquals(-1, cache.stamp(1L));
+            assertTrue(cache.stamp(2L) >= 0);
+
+            // Rolled back, e.g. after a later listener threw; no commit listener runs
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        long stamp = cache.stamp(1L);
+        assertTrue(stamp >= 0);
+        cache.populate(1L, stamp, 1, List.of(activity(11L)), 1);
+        assertNotNull(cache.get(1L));
+    }
+
+    @Test
+    void committedWritesBumpTheEntryVersionOncePerUser() {
+        cache.populate(1L, cache.stamp(1L), 4, List.of(activity(11L)), 1);
+
+        cache.onCreated(new ActivitiesCreatedEvent(List.of(
+                UserActivity.builder().id(12L).userId(1L).activityType("LOGIN").createdAt(LocalDateTime.now()).build(),
+                UserActivity.builder().id(13L).userId(1L).activityType("LOGIN").createdAt(LocalDateTime.now()).build())));
+        assertEquals(5, cache.get(1L).getVersion());
+        assertEquals(3, cache.get(1L).getTotalElements());
+
+        cache.onDeleted(new ActivitiesDeletedEvent(List.of(
+                new ActivitiesDeletedEvent.DeletedActivity(12L, 1L, "LOGIN", LocalDateTime.now()))));
+        assertEquals(6, cache.get(1L).getVersion());
+        assertEquals(2, cache.get(1L).getTotalElements());
+    }
+
+    private static ActivityResponse activity(Long id) {
+        return ActivityResponse.builder()
+                .id(id)
+                .activityType("LOGIN")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
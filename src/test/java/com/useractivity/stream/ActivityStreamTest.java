@@ -0,0 +1,230 @@
+package com.useractivity.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.useractivity.dto.ActivityResponse;
+import com.useractivity.dto.CreateActivityRequest;
+import com.useractivity.entity.UserActivity;
+import com.useractivity.enums.ActivityType;
+import com.useractivity.event.ActivitiesCreatedEvent;
+import com.useractivity.repository.UserActivityRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"app.stream.buffer-size=4", "app.stream.send-timeout-ms=300"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ActivityStreamTest {
+
+    private static final long USER = 931L;
+    private static final long SLOW_USER = 932L;
+    private static final long STALLED_USER = 933L;
+    private static final long NEIGHBOUR_USER = 934L;
+    private static final long RESUMING_USER = 935L;
+    private static final long BUSY_USER = 936L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ActivityStreamBus bus;
+
+    @Autowired
+    private UserActivityRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterAll
+    void deleteActivities() {
+        repository.deleteAll(repository.findAll().stream().filter(activity -> activity.getUserId() == USER).toList());
+    }
+
+    @Test
+    void streamsCommittedChangesAndResumesFromLastEventId() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/api/v1/users/" + USER + "/activities/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String created = mockMvc.perform(post("/api/v1/users/" + USER + "/activities")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateActivityRequest(
+                                ActivityType.LOGIN, "Streamed login", null))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long activityId = objectMapper.readValue(created, ActivityResponse.class).getId();
+
+        String createdEvent = awaitContent(stream, "event:activity.created");
+        assertTrue(createdEvent.contains("\"id\":" + activityId));
+        Matcher id = Pattern.compile("id:(\\S+)\nevent:activity.created").matcher(createdEvent);
+        assertTrue(id.find());
+        String createdEventId = id.group(1);
+
+        mockMvc.perform(delete("/api/v1/activities/" + activityId)).andExpect(status().isNoContent());
+        assertTrue(awaitContent(stream, "event:activity.deleted").contains("data:{\"id\":" + activityId + "}"));
+
+        // A reconnect after the created event gets the delete replayed, but not the create again
+        MvcResult resumed = mockMvc.perform(get("/api/v1/users/" + USER + "/activities/stream")
+                        .header("Last-Event-ID", createdEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String replayed = awaitContent(resumed, "event:activity.deleted");
+        assertFalse(replayed.contains("event:activity.created"));
+        assertFalse(replayed.contains("event:reset"));
+
+        MvcResult unknown = mockMvc.perform(get("/api/v1/users/" + USER + "/activities/stream")
+                        .header("Last-Event-ID", "previous-run-17"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(unknown, "event:reset");
+    }
+
+    @Test
+    void slowSubscriberIsDisconnected() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SseEmitter blocked = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(builder);
+            }
+        };
+        int before = bus.getSubscriberCount();
+        try {
+            ActivityStreamSubscriber subscriber = bus.subscribe(SLOW_USER, null, blocked);
+            assertEquals(before + 1, bus.getSubscriberCount());
+
+            // The sender is stuck on the first send; the buffer of 4 then fills and the next event drops the stream
+            List<UserActivity> activities = LongStream.rangeClosed(1, 6)
+                    .mapToObj(id -> UserActivity.builder().id(id).userId(SLOW_USER).activityType("LOGIN")
+                            .description("Burst").createdAt(LocalDateTime.now()).build())
+                    .toList();
+            activities.forEach(activity -> bus.onCreated(new ActivitiesCreatedEvent(List.of(activity))));
+
+            assertEquals(before, bus.getSubscriberCount());
+            assertEquals(0, subscriber.getBuffered());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void stalledSubscribersAreDroppedWithoutHoldingUpOthers() throws Exception {
+        double timeoutsBefore = meterRegistry.counter("useractivity.stream.dropped", "reason", "send_timeout").count();
+        CountDownLatch interrupted = new CountDownLatch(3);
+        int before = bus.getSubscriberCount();
+        // More clients that stop reading than the old fixed sender pool had threads
+        for (int i = 0; i < 3; i++) {
+            bus.subscribe(STALLED_USER, null, new SseEmitter() {
+                @Override
+                public void send(SseEventBuilder builder) {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                }
+            });
+        }
+        CountDownLatch delivered = new CountDownLatch(1);
+        ActivityStreamSubscriber neighbour = bus.subscribe(NEIGHBOUR_USER, null, new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                if (builder.build().stream().anyMatch(data -> data.getData().toString().contains("Neighbour"))) {
+                    delivered.countDown();
+                }
+                super.send(builder);
+            }
+        });
+
+        bus.onCreated(new ActivitiesCreatedEvent(List.of(UserActivity.builder().id(1L).userId(NEIGHBOUR_USER)
+                .activityType("LOGIN").description("Neighbour").createdAt(LocalDateTime.now()).build())));
+        assertTrue(delivered.await(1, TimeUnit.SECONDS));
+
+        // The stalled streams are dropped and their senders released, the neighbour stays
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertEquals(before + 1, bus.getSubscriberCount());
+        assertEquals(3, meterRegistry.counter("useractivity.stream.dropped", "reason", "send_timeout").count()
+                - timeoutsBefore);
+        neighbour.close();
+    }
+
+    @Test
+    void resumeReplaysOnlyItsUsersEventsUntilTheyAreEvicted() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/api/v1/users/" + RESUMING_USER + "/activities/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        publish(RESUMING_USER, 1, "First");
+        Matcher id = Pattern.compile("id:(\\S+)\nevent:activity.created")
+                .matcher(awaitContent(stream, "event:activity.created"));
+        assertTrue(id.find());
+        String firstEventId = id.group(1);
+        publish(BUSY_USER, 100, "Busy");
+        publish(RESUMING_USER, 1, "Second");
+
+        MvcResult resumed = mockMvc.perform(get("/api/v1/users/" + RESUMING_USER + "/activities/stream")
+                        .header("Last-Event-ID", firstEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String replayed = awaitContent(resumed, "Second");
+        assertFalse(replayed.contains("First"));
+        assertFalse(replayed.contains("Busy"));
+
+        // Another user's events push the ones after the first id out of the replay buffer (10000 events)
+        publish(BUSY_USER, 10_000, "Busy");
+        MvcResult evicted = mockMvc.perform(get("/api/v1/users/" + RESUMING_USER + "/activities/stream")
+                        .header("Last-Event-ID", firstEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertFalse(awaitContent(evicted, "event:reset").contains("Second"));
+    }
+
+    private void publish(long userId, int count, String description) {
+        for (int i = 0; i < count; i++) {
+            bus.onCreated(new ActivitiesCreatedEvent(List.of(UserActivity.builder().id((long) i).userId(userId)
+                    .activityType("LOGIN").description(description).createdAt(LocalDateTime.now()).build())));
+        }
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertTrue(content.contains(expected), "No " + expected + " in " + content);
+        return content;
+    }
+}